@@ -10,15 +10,18 @@
 package dev.lambdaurora.spruceui.option;
 
 import dev.lambdaurora.spruceui.Position;
+import dev.lambdaurora.spruceui.text.NumberInputFormat;
 import dev.lambdaurora.spruceui.widget.SpruceWidget;
 import dev.lambdaurora.spruceui.widget.text.SpruceNamedTextFieldWidget;
 import dev.lambdaurora.spruceui.widget.text.SpruceTextFieldWidget;
+import dev.lambdaurora.spruceui.widget.text.TextCommitPolicy;
 import net.minecraft.TextFormatting;
 import net.minecraft.network.chat.Style;
 import net.minecraft.network.chat.Text;
 import net.minecraft.util.FormattedCharSequence;
 import org.jetbrains.annotations.Nullable;
 
+import java.util.Objects;
 import java.util.function.Consumer;
 import java.util.function.Supplier;
 
@@ -26,12 +29,13 @@ import java.util.function.Supplier;
  * Represents a float input option.
  *
  * @author LambdAurora
- * @version 3.0.0
+ * @version 6.2.0
  * @since 2.1.0
  */
 public class SpruceFloatInputOption extends SpruceOption {
 	private final Supplier<Float> getter;
 	private final Consumer<Float> setter;
+	private TextCommitPolicy commitPolicy = TextCommitPolicy.IMMEDIATE;
 
 	public SpruceFloatInputOption(String key, Supplier<Float> getter, Consumer<Float> setter, @Nullable Text tooltip) {
 		super(key);
@@ -44,24 +48,15 @@ public class SpruceFloatInputOption extends SpruceOption {
 	public SpruceWidget createWidget(Position position, int width) {
 		var textField = new SpruceTextFieldWidget(position, width, 20, this.getPrefix());
 		textField.setText(String.valueOf(this.get()));
-		textField.setTextPredicate(SpruceTextFieldWidget.FLOAT_INPUT_PREDICATE);
-		textField.setRenderTextProvider((displayedText, offset) -> {
-			try {
-				Float.parseFloat(textField.getText());
-				return FormattedCharSequence.forward(displayedText, Style.EMPTY);
-			} catch (NumberFormatException e) {
-				return FormattedCharSequence.forward(displayedText, Style.EMPTY.withColor(TextFormatting.RED));
-			}
-		});
+		textField.setNumberFormat(NumberInputFormat.FLOAT);
+		textField.setRenderTextProvider((displayedText, offset) -> FormattedCharSequence.forward(displayedText,
+				textField.isValidNumber() ? Style.EMPTY : Style.EMPTY.withColor(TextFormatting.RED)));
 		textField.setChangedListener(input -> {
-			float value;
-			try {
-				value = Float.parseFloat(input);
-			} catch (NumberFormatException e) {
-				value = 0;
-			}
-			this.set(value);
+			// Incomplete or out of bounds numbers are not committed, as they do not parse to the typed value.
+			if (textField.isValidNumber())
+				this.set((float) NumberInputFormat.FLOAT.parseDecimal(input, 0));
 		});
+		textField.setCommitPolicy(this.commitPolicy);
 		this.getOptionTooltip().ifPresent(textField::setTooltip);
 		return new SpruceNamedTextFieldWidget(textField);
 	}
@@ -70,6 +65,25 @@ public class SpruceFloatInputOption extends SpruceOption {
 		this.setter.accept(value);
 	}
 
+	/**
+	 * {@return the policy deciding when edits of the text field are committed to the option}
+	 *
+	 * @since 6.2.0
+	 */
+	public TextCommitPolicy getCommitPolicy() {
+		return this.commitPolicy;
+	}
+
+	/**
+	 * Sets the policy deciding when edits of the text field are committed to the option, which applies to the widgets created afterward.
+	 *
+	 * @param commitPolicy the commit policy
+	 * @since 6.2.0
+	 */
+	public void setCommitPolicy(TextCommitPolicy commitPolicy) {
+		this.commitPolicy = Objects.requireNonNull(commitPolicy, "The commit policy cannot be null.");
+	}
+
 	/**
 	 * Gets the current value.
 	 *
@@ -13,9 +13,11 @@ import dev.lambdaurora.spruceui.Position;
 import dev.lambdaurora.spruceui.widget.SpruceWidget;
 import dev.lambdaurora.spruceui.widget.text.SpruceNamedTextFieldWidget;
 import dev.lambdaurora.spruceui.widget.text.SpruceTextFieldWidget;
+import dev.lambdaurora.spruceui.widget.text.TextCommitPolicy;
 import net.minecraft.network.chat.Text;
 import org.jetbrains.annotations.Nullable;
 
+import java.util.Objects;
 import java.util.function.Consumer;
 import java.util.function.Predicate;
 import java.util.function.Supplier;
@@ -24,13 +26,14 @@ import java.util.function.Supplier;
  * Represents a string option.
  *
  * @author LambdAurora
- * @version 3.0.0
+ * @version 6.2.0
  * @since 2.1.0
  */
 public class SpruceStringOption extends SpruceOption {
 	private final Supplier<String> getter;
 	private final Consumer<String> setter;
 	private final @Nullable Predicate<String> predicate;
+	private TextCommitPolicy commitPolicy = TextCommitPolicy.IMMEDIATE;
 
 	public SpruceStringOption(String key, Supplier<String> getter, Consumer<String> setter, @Nullable Predicate<String> predicate, @Nullable Text tooltip) {
 		super(key);
@@ -47,6 +50,7 @@ public class SpruceStringOption extends SpruceOption {
 		if (this.predicate != null)
 			textField.setTextPredicate(this.predicate);
 		textField.setChangedListener(this::set);
+		textField.setCommitPolicy(this.commitPolicy);
 		this.getOptionTooltip().ifPresent(textField::setTooltip);
 		return new SpruceNamedTextFieldWidget(textField);
 	}
@@ -55,6 +59,25 @@ public class SpruceStringOption extends SpruceOption {
 		this.setter.accept(value);
 	}
 
+	/**
+	 * {@return the policy deciding when edits of the text field are committed to the option}
+	 *
+	 * @since 6.2.0
+	 */
+	public TextCommitPolicy getCommitPolicy() {
+		return this.commitPolicy;
+	}
+
+	/**
+	 * Sets the policy deciding when edits of the text field are committed to the option, which applies to the widgets created afterward.
+	 *
+	 * @param commitPolicy the commit policy
+	 * @since 6.2.0
+	 */
+	public void setCommitPolicy(TextCommitPolicy commitPolicy) {
+		this.commitPolicy = Objects.requireNonNull(commitPolicy, "The commit policy cannot be null.");
+	}
+
 	/**
 	 * Gets the current value.
 	 *
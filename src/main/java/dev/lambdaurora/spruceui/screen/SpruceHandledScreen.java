@@ -32,7 +32,7 @@ import java.util.function.Supplier;
  *
  * @param <T> the type of the screen handler
  * @author LambdAurora
- * @version 5.0.0
+ * @version 6.2.0
  * @since 3.3.0
  */
 public abstract class SpruceHandledScreen<T extends AbstractContainerMenu> extends AbstractContainerScreen<T> implements SprucePositioned, SpruceElement {
@@ -51,6 +51,37 @@ public abstract class SpruceHandledScreen<T extends AbstractContainerMenu> exten
 			((SpruceWidget) focused).setFocused(true);
 	}
 
+	@Override
+	protected void containerTick() {
+		super.containerTick();
+		for (var element : this.children()) {
+			if (element instanceof SpruceWidget widget)
+				widget.tick();
+		}
+	}
+
+	@Override
+	public void removed() {
+		this.notifyWidgetsRemoved();
+		super.removed();
+	}
+
+	@Override
+	protected void clearWidgets() {
+		this.notifyWidgetsRemoved();
+		super.clearWidgets();
+	}
+
+	/**
+	 * Notifies the widgets of this screen that they are discarded.
+	 */
+	private void notifyWidgetsRemoved() {
+		for (var element : this.children()) {
+			if (element instanceof SpruceWidget widget)
+				widget.removed();
+		}
+	}
+
 	/* Input */
 
 	@Override
@@ -28,7 +28,7 @@ import java.util.function.Supplier;
  * Represents a screen.
  *
  * @author LambdAurora
- * @version 3.3.0
+ * @version 6.2.0
  * @since 2.0.0
  */
 public abstract class SpruceScreen extends Screen implements SprucePositioned, SpruceElement {
@@ -47,6 +47,37 @@ public abstract class SpruceScreen extends Screen implements SprucePositioned, S
 			focused.setFocused(true);
 	}
 
+	@Override
+	public void tick() {
+		super.tick();
+		for (var element : this.children()) {
+			if (element instanceof SpruceWidget widget)
+				widget.tick();
+		}
+	}
+
+	@Override
+	public void removed() {
+		this.notifyWidgetsRemoved();
+		super.removed();
+	}
+
+	@Override
+	protected void clearWidgets() {
+		this.notifyWidgetsRemoved();
+		super.clearWidgets();
+	}
+
+	/**
+	 * Notifies the widgets of this screen that they are discarded.
+	 */
+	private void notifyWidgetsRemoved() {
+		for (var element : this.children()) {
+			if (element instanceof SpruceWidget widget)
+				widget.removed();
+		}
+	}
+
 	/* Input */
 
 	@Override
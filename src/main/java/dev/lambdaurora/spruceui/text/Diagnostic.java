@@ -0,0 +1,52 @@
+/*
+ * Copyright © 2024 LambdAurora <email@lambdaurora.dev>
+ *
+ * This file is part of SpruceUI.
+ *
+ * Licensed under the MIT license. For more information,
+ * see the LICENSE file.
+ */
+
+package dev.lambdaurora.spruceui.text;
+
+import net.minecraft.network.chat.Text;
+
+/**
+ * Represents a diagnostic reported on a range of text, such as a validation error.
+ *
+ * @param start the start offset of the range, inclusive
+ * @param end the end offset of the range, exclusive
+ * @param severity the severity of the diagnostic
+ * @param message the message of the diagnostic
+ * @author LambdAurora
+ * @version 6.2.0
+ * @since 6.2.0
+ */
+public record Diagnostic(int start, int end, Severity severity, Text message) {
+	public Diagnostic {
+		if (start < 0 || end < start)
+			throw new IllegalArgumentException("Invalid diagnostic range [" + start + ", " + end + ")");
+	}
+
+	/**
+	 * Represents the severity of a diagnostic.
+	 */
+	public enum Severity {
+		ERROR(0xffff5555),
+		WARNING(0xffffaa00),
+		INFO(0xff55aaff);
+
+		private final int color;
+
+		Severity(int color) {
+			this.color = color;
+		}
+
+		/**
+		 * {@return the color of the markers of this severity}
+		 */
+		public int getColor() {
+			return this.color;
+		}
+	}
+}
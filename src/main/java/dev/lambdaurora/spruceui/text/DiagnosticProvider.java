@@ -0,0 +1,33 @@
+/*
+ * Copyright © 2024 LambdAurora <email@lambdaurora.dev>
+ *
+ * This file is part of SpruceUI.
+ *
+ * Licensed under the MIT license. For more information,
+ * see the LICENSE file.
+ */
+
+package dev.lambdaurora.spruceui.text;
+
+import java.util.List;
+
+/**
+ * Represents a validator of text, which reports diagnostics.
+ * <p>
+ * Validation runs on a background thread with an immutable snapshot of the text,
+ * so it may be expensive without slowing down editing.
+ *
+ * @author LambdAurora
+ * @version 6.2.0
+ * @since 6.2.0
+ */
+@FunctionalInterface
+public interface DiagnosticProvider {
+	/**
+	 * Validates the given text. This is called from a background thread.
+	 *
+	 * @param text the snapshot of the text to validate
+	 * @return the diagnostics, in any order
+	 */
+	List<Diagnostic> validate(TextDocument.Snapshot text);
+}
@@ -0,0 +1,149 @@
+/*
+ * Copyright © 2024 LambdAurora <email@lambdaurora.dev>
+ *
+ * This file is part of SpruceUI.
+ *
+ * Licensed under the MIT license. For more information,
+ * see the LICENSE file.
+ */
+
+package dev.lambdaurora.spruceui.text;
+
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Represents an immutable set of diagnostics for a given version of a document, sorted by start offset.
+ * <p>
+ * The running maximum of the end offsets is kept alongside the diagnostics,
+ * which allows finding the diagnostics overlapping a range, such as the visible rows, with a binary search.
+ * <p>
+ * A set can be {@linkplain #update(int, int, int, int) mapped through the edits} of the document,
+ * so that the diagnostics stay on the text they are reported for until the document is validated again.
+ *
+ * @author LambdAurora
+ * @version 6.2.0
+ * @since 6.2.0
+ */
+public final class DiagnosticSet {
+	public static final DiagnosticSet EMPTY = new DiagnosticSet(-1, List.of(), new int[0]);
+
+	private final int version;
+	private final List<Diagnostic> diagnostics;
+	/**
+	 * The maximum end offset of the diagnostics up to each index.
+	 */
+	private final int[] maxEnds;
+
+	private DiagnosticSet(int version, List<Diagnostic> diagnostics, int[] maxEnds) {
+		this.version = version;
+		this.diagnostics = diagnostics;
+		this.maxEnds = maxEnds;
+	}
+
+	/**
+	 * Creates a set of diagnostics.
+	 *
+	 * @param version the version of the document the diagnostics are reported for
+	 * @param diagnostics the diagnostics, in any order
+	 * @return the set of diagnostics
+	 */
+	public static DiagnosticSet of(int version, List<Diagnostic> diagnostics) {
+		var sorted = diagnostics.stream().sorted(Comparator.comparingInt(Diagnostic::start)).toList();
+		var maxEnds = new int[sorted.size()];
+		int maxEnd = 0;
+		for (int i = 0; i < maxEnds.length; i++) {
+			maxEnd = Math.max(maxEnd, sorted.get(i).end());
+			maxEnds[i] = maxEnd;
+		}
+		return new DiagnosticSet(version, sorted, maxEnds);
+	}
+
+	/**
+	 * Maps this set through an edit of the document.
+	 * <p>
+	 * The diagnostics after the edited range are shifted, and the ends of the diagnostics overlapping it are clamped to it,
+	 * a diagnostic within the removed text becomes empty at the edit offset.
+	 *
+	 * @param version the version of the document after the edit
+	 * @param offset the offset of the edit
+	 * @param removedLength the length of the removed text
+	 * @param insertedLength the length of the inserted text
+	 * @return the mapped set
+	 */
+	public DiagnosticSet update(int version, int offset, int removedLength, int insertedLength) {
+		if (this.diagnostics.isEmpty())
+			return this;
+
+		// Mapping offsets is monotonic, so the diagnostics stay sorted by start offset.
+		var mapped = new Diagnostic[this.diagnostics.size()];
+		var maxEnds = new int[mapped.length];
+		int maxEnd = 0;
+		for (int i = 0; i < mapped.length; i++) {
+			var diagnostic = this.diagnostics.get(i);
+			int start = mapOffset(diagnostic.start(), offset, removedLength, insertedLength, false);
+			// An empty diagnostic at the offset of an insertion moves after the inserted text.
+			int end = Math.max(start, mapOffset(diagnostic.end(), offset, removedLength, insertedLength, true));
+			mapped[i] = start == diagnostic.start() && end == diagnostic.end() ? diagnostic
+					: new Diagnostic(start, end, diagnostic.severity(), diagnostic.message());
+			maxEnd = Math.max(maxEnd, end);
+			maxEnds[i] = maxEnd;
+		}
+		return new DiagnosticSet(version, List.of(mapped), maxEnds);
+	}
+
+	private static int mapOffset(int position, int offset, int removedLength, int insertedLength, boolean end) {
+		if (position < offset || (end && position == offset))
+			return position;
+		else if (position >= offset + removedLength)
+			return position + insertedLength - removedLength;
+		// Within the removed text.
+		return end ? offset + insertedLength : offset;
+	}
+
+	/**
+	 * {@return the version of the document the diagnostics are reported for}
+	 */
+	public int getVersion() {
+		return this.version;
+	}
+
+	/**
+	 * {@return the diagnostics, sorted by start offset}
+	 */
+	public List<Diagnostic> getDiagnostics() {
+		return this.diagnostics;
+	}
+
+	public int size() {
+		return this.diagnostics.size();
+	}
+
+	public boolean isEmpty() {
+		return this.diagnostics.isEmpty();
+	}
+
+	public Diagnostic get(int index) {
+		return this.diagnostics.get(index);
+	}
+
+	/**
+	 * Finds the first diagnostic from which diagnostics may end after the given offset,
+	 * the diagnostics before it all end at or before the offset.
+	 *
+	 * @param offset the offset
+	 * @return the index of the diagnostic, or {@link #size()} if there is none
+	 */
+	public int firstEndingAfter(int offset) {
+		int low = 0;
+		int high = this.maxEnds.length;
+		while (low < high) {
+			int middle = (low + high) >>> 1;
+			if (this.maxEnds[middle] <= offset)
+				low = middle + 1;
+			else
+				high = middle;
+		}
+		return low;
+	}
+}
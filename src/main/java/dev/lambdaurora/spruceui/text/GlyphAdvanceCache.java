@@ -0,0 +1,450 @@
+/*
+ * Copyright © 2024 LambdAurora <email@lambdaurora.dev>
+ *
+ * This file is part of SpruceUI.
+ *
+ * Licensed under the MIT license. For more information,
+ * see the LICENSE file.
+ */
+
+package dev.lambdaurora.spruceui.text;
+
+import dev.lambdaurora.spruceui.SpruceUI;
+import it.unimi.dsi.fastutil.ints.Int2FloatOpenHashMap;
+import it.unimi.dsi.fastutil.ints.IntOpenHashSet;
+import net.fabricmc.fabric.api.resource.ResourceManagerHelper;
+import net.fabricmc.fabric.api.resource.ResourceReloadListenerKeys;
+import net.fabricmc.fabric.api.resource.SimpleSynchronousResourceReloadListener;
+import net.minecraft.client.Minecraft;
+import net.minecraft.client.gui.Font;
+import net.minecraft.resources.Identifier;
+import net.minecraft.server.packs.PackType;
+import net.minecraft.server.packs.resources.ResourceManager;
+import net.minecraft.util.math.MathHelper;
+import org.jetbrains.annotations.ApiStatus;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Caches the advance width of the glyphs of the default font for unstyled text.
+ * <p>
+ * The font resolves the glyph of every character of a measured string through its style and font set lookups,
+ * this cache instead stores the advance of the code points of the Basic Multilingual Plane in a flat table
+ * and the other code points in a map. The cache is invalidated on resource reload.
+ * <p>
+ * The measurements replicate {@link Font#width(String)} and
+ * {@link Font#plainSubstrByWidth(String, int, boolean)} for unstyled text,
+ * text containing formatting codes is delegated to the font.
+ * <p>
+ * The advances are resolved on the render thread, measuring from another thread is possible:
+ * the misses of the measured range are resolved in a single render thread task which the measurement waits for,
+ * {@link #prefetch(CharSequence)} allows to resolve the misses of a whole text at once beforehand.
+ * A thread measuring text must not be awaited by the render thread.
+ * <p>
+ * On invalidation, the advances cached so far are measured again with the reloaded fonts in a new table,
+ * which replaces the current one along with the generation once it is fully populated.
+ * Measurements from other threads thus never mix the advances of the previous fonts with the ones of the reloaded fonts
+ * without seeing a new generation.
+ *
+ * @author LambdAurora
+ * @version 6.2.0
+ * @since 6.2.0
+ */
+public final class GlyphAdvanceCache {
+	static final char FORMATTING_CODE_PREFIX = '§';
+	private static volatile AdvanceTable table = new AdvanceTable(0);
+
+	private GlyphAdvanceCache() {
+		throw new UnsupportedOperationException("GlyphAdvanceCache only contains static definitions.");
+	}
+
+	@ApiStatus.Internal
+	public static void initialize() {
+		ResourceManagerHelper.get(PackType.CLIENT_RESOURCES).registerReloadListener(new SimpleSynchronousResourceReloadListener() {
+			@Override
+			public Identifier getFabricId() {
+				return SpruceUI.id("glyph_advance_cache");
+			}
+
+			@Override
+			public Collection<Identifier> getFabricDependencies() {
+				return List.of(ResourceReloadListenerKeys.FONTS);
+			}
+
+			@Override
+			public void onResourceManagerReload(ResourceManager manager) {
+				invalidate();
+			}
+		});
+	}
+
+	/**
+	 * Invalidates all the cached advances.
+	 * <p>
+	 * The previously cached code points are measured again with the current fonts before the new generation is published.
+	 * This must be called on the render thread.
+	 */
+	public static void invalidate() {
+		var previous = table;
+		var repopulated = new AdvanceTable(previous.generation + 1);
+
+		for (int codePoint = 0; codePoint <= Character.MAX_VALUE; codePoint++) {
+			if (!Float.isNaN(previous.bmpAdvances[codePoint]))
+				repopulated.resolve(codePoint);
+		}
+
+		int[] supplementary;
+		synchronized (previous.supplementaryAdvances) {
+			supplementary = previous.supplementaryAdvances.keySet().toIntArray();
+		}
+		for (int codePoint : supplementary)
+			repopulated.resolve(codePoint);
+
+		table = repopulated;
+	}
+
+	/**
+	 * {@return the generation of this cache, incremented on every invalidation}
+	 * <p>
+	 * Measurements derived from this cache are only valid as long as the generation stays the same,
+	 * the generation has to be read before measuring.
+	 */
+	public static int getGeneration() {
+		return table.generation;
+	}
+
+	/**
+	 * Returns whether the advance of the given code point is cached.
+	 *
+	 * @param codePoint the code point
+	 * @return {@code true} if the advance is cached, or {@code false} otherwise
+	 */
+	public static boolean isCached(int codePoint) {
+		return !Float.isNaN(table.get(codePoint));
+	}
+
+	/**
+	 * Resolves the advances of the code points of the given text which are not cached yet.
+	 * <p>
+	 * When called from another thread than the render thread, all the misses are resolved in a single render thread task,
+	 * measuring the text once the returned future completes does not block.
+	 *
+	 * @param text the text
+	 * @return a future completed once the advances are resolved
+	 */
+	public static CompletableFuture<Void> prefetch(CharSequence text) {
+		return prefetch(text, 0, text.length());
+	}
+
+	private static CompletableFuture<Void> prefetch(CharSequence text, int start, int end) {
+		var client = Minecraft.getInstance();
+		if (client == null || client.isSameThread()) {
+			for (int i = start; i < end; ) {
+				int codePoint = codePointAt(text, i, end);
+				getAdvance(codePoint);
+				i += Character.charCount(codePoint);
+			}
+			return CompletableFuture.completedFuture(null);
+		}
+
+		var current = table;
+		var misses = new IntOpenHashSet();
+		for (int i = start; i < end; ) {
+			int codePoint = codePointAt(text, i, end);
+			if (Float.isNaN(current.get(codePoint)))
+				misses.add(codePoint);
+			i += Character.charCount(codePoint);
+		}
+
+		if (misses.isEmpty())
+			return CompletableFuture.completedFuture(null);
+
+		return client.submit(() -> {
+			var iterator = misses.iterator();
+			while (iterator.hasNext())
+				getAdvance(iterator.nextInt());
+		});
+	}
+
+	/**
+	 * Resolves the misses of the given range of text in a single render thread task if called from another thread,
+	 * so that measuring the range does not wait for the render thread once per missing code point.
+	 *
+	 * @param text the text
+	 * @param start the start of the range, inclusive
+	 * @param end the end of the range, exclusive
+	 */
+	static void resolveMisses(CharSequence text, int start, int end) {
+		var client = Minecraft.getInstance();
+		if (client != null && !client.isSameThread())
+			prefetch(text, start, end).join();
+	}
+
+	/**
+	 * Returns the advance of the given code point in the default font without any style.
+	 * <p>
+	 * A miss from another thread than the render thread waits for the render thread to resolve it,
+	 * {@link #prefetch(CharSequence)} should be used beforehand to resolve the misses of a whole text at once.
+	 *
+	 * @param codePoint the code point
+	 * @return the advance
+	 */
+	public static float getAdvance(int codePoint) {
+		return getAdvance(table, codePoint);
+	}
+
+	private static float getAdvance(AdvanceTable current, int codePoint) {
+		float advance = current.get(codePoint);
+
+		if (Float.isNaN(advance)) {
+			var client = Minecraft.getInstance();
+			if (client != null && !client.isSameThread())
+				return client.submit(() -> getAdvance(codePoint)).join();
+
+			// The table is only replaced on the render thread, the given table is the current one.
+			advance = current.resolve(codePoint);
+			if (Float.isNaN(advance))
+				return 0.f;
+		}
+
+		return advance;
+	}
+
+	/**
+	 * Returns the advance of a code point of the given range of text being measured.
+	 * <p>
+	 * A miss from another thread than the render thread resolves the misses of the whole range in a single render thread task,
+	 * so that the rest of the measurement does not wait for the render thread again.
+	 *
+	 * @param current the cache table the measurement uses
+	 * @param codePoint the code point
+	 * @param text the measured text
+	 * @param start the start of the range which remains to be measured, inclusive
+	 * @param end the end of the range which remains to be measured, exclusive
+	 * @return the advance
+	 */
+	private static float getAdvance(AdvanceTable current, int codePoint, CharSequence text, int start, int end) {
+		float advance = current.get(codePoint);
+		if (!Float.isNaN(advance))
+			return advance;
+
+		var client = Minecraft.getInstance();
+		if (client != null && !client.isSameThread())
+			prefetch(text, start, end).join();
+		return getAdvance(current, codePoint);
+	}
+
+	/**
+	 * Returns the width of the given text, as {@link Font#width(String)} would.
+	 *
+	 * @param text the text
+	 * @return the width of the text
+	 */
+	public static int width(String text) {
+		return width(text, 0, text.length());
+	}
+
+	/**
+	 * Returns the width of a range of the given text, as {@link Font#width(String)} would.
+	 *
+	 * @param text the text
+	 * @param start the start of the range, inclusive
+	 * @param end the end of the range, exclusive
+	 * @return the width of the range of text
+	 */
+	public static int width(CharSequence text, int start, int end) {
+		var current = table;
+		float width = 0.f;
+
+		for (int i = start; i < end; ) {
+			char c = text.charAt(i);
+			if (c == FORMATTING_CODE_PREFIX) {
+				var font = fallbackFont();
+				if (font == null)
+					return MathHelper.ceil(width);
+				return font.width(text.subSequence(start, end).toString());
+			}
+
+			int codePoint = codePointAt(text, i, end);
+			width += getAdvance(current, codePoint, text, i, end);
+			i += Character.charCount(codePoint);
+		}
+
+		return MathHelper.ceil(width);
+	}
+
+	/**
+	 * Returns the end index of the longest head of the given range of text which fits in the given width,
+	 * as {@link Font#plainSubstrByWidth(String, int)} would.
+	 *
+	 * @param text the text
+	 * @param start the start of the range, inclusive
+	 * @param end the end of the range, exclusive
+	 * @param maxWidth the maximum width
+	 * @return the end index of the head which fits, between {@code start} and {@code end}
+	 */
+	public static int headEndAtWidth(CharSequence text, int start, int end, int maxWidth) {
+		var current = table;
+		float remaining = maxWidth;
+
+		for (int i = start; i < end; ) {
+			char c = text.charAt(i);
+			if (c == FORMATTING_CODE_PREFIX) {
+				var font = fallbackFont();
+				if (font == null)
+					return i;
+				return start + font.plainSubstrByWidth(text.subSequence(start, end).toString(), maxWidth).length();
+			}
+
+			int codePoint = codePointAt(text, i, end);
+			remaining -= getAdvance(current, codePoint, text, i, end);
+			if (remaining < 0.f)
+				return i;
+			i += Character.charCount(codePoint);
+		}
+
+		return end;
+	}
+
+	/**
+	 * Returns the start index of the longest tail of the given range of text which fits in the given width,
+	 * as {@link Font#plainSubstrByWidth(String, int, boolean)} would.
+	 *
+	 * @param text the text
+	 * @param start the start of the range, inclusive
+	 * @param end the end of the range, exclusive
+	 * @param maxWidth the maximum width
+	 * @return the start index of the tail which fits, between {@code start} and {@code end}
+	 */
+	public static int tailStartAtWidth(CharSequence text, int start, int end, int maxWidth) {
+		var current = table;
+		float width = 0.f;
+
+		for (int i = end; i > start; ) {
+			char c = text.charAt(i - 1);
+			if (c == FORMATTING_CODE_PREFIX) {
+				var font = fallbackFont();
+				if (font == null)
+					return i;
+				return end - font.plainSubstrByWidth(text.subSequence(start, end).toString(), maxWidth, true).length();
+			}
+
+			int codePoint = codePointBefore(text, i, start);
+			width += getAdvance(current, codePoint, text, start, i);
+			if (width > maxWidth)
+				return i;
+			i -= Character.charCount(codePoint);
+		}
+
+		return start;
+	}
+
+	/**
+	 * Returns the longest head of the given text which fits in the given width,
+	 * as {@link Font#plainSubstrByWidth(String, int)} would.
+	 *
+	 * @param text the text
+	 * @param maxWidth the maximum width
+	 * @return the head of the text which fits
+	 */
+	public static String plainSubstrByWidth(String text, int maxWidth) {
+		return text.substring(0, headEndAtWidth(text, 0, text.length(), maxWidth));
+	}
+
+	/**
+	 * Returns the longest head or tail of the given text which fits in the given width,
+	 * as {@link Font#plainSubstrByWidth(String, int, boolean)} would.
+	 *
+	 * @param text the text
+	 * @param maxWidth the maximum width
+	 * @param tail {@code true} to return the tail of the text, or {@code false} to return the head
+	 * @return the head or tail of the text which fits
+	 */
+	public static String plainSubstrByWidth(String text, int maxWidth, boolean tail) {
+		if (tail)
+			return text.substring(tailStartAtWidth(text, 0, text.length(), maxWidth));
+		return plainSubstrByWidth(text, maxWidth);
+	}
+
+	private static int codePointAt(CharSequence text, int index, int end) {
+		char high = text.charAt(index);
+		if (Character.isHighSurrogate(high) && index + 1 < end) {
+			char low = text.charAt(index + 1);
+			if (Character.isLowSurrogate(low))
+				return Character.toCodePoint(high, low);
+		}
+		return high;
+	}
+
+	private static int codePointBefore(CharSequence text, int index, int start) {
+		char low = text.charAt(index - 1);
+		if (Character.isLowSurrogate(low) && index - 2 >= start) {
+			char high = text.charAt(index - 2);
+			if (Character.isHighSurrogate(high))
+				return Character.toCodePoint(high, low);
+		}
+		return low;
+	}
+
+	private static @Nullable Font fallbackFont() {
+		var client = Minecraft.getInstance();
+		return client == null ? null : client.font;
+	}
+
+	private static float measure(int codePoint) {
+		var font = fallbackFont();
+		if (font == null)
+			return Float.NaN;
+		return font.getSplitter().stringWidth(Character.toString(codePoint));
+	}
+
+	/**
+	 * Represents the cached advances of a generation.
+	 */
+	private static final class AdvanceTable {
+		private final int generation;
+		private final float[] bmpAdvances = new float[Character.MAX_VALUE + 1];
+		private final Int2FloatOpenHashMap supplementaryAdvances = new Int2FloatOpenHashMap();
+
+		private AdvanceTable(int generation) {
+			this.generation = generation;
+			Arrays.fill(this.bmpAdvances, Float.NaN);
+			this.supplementaryAdvances.defaultReturnValue(Float.NaN);
+		}
+
+		/**
+		 * {@return the cached advance of the given code point, or {@link Float#NaN} if it is not cached}
+		 */
+		private float get(int codePoint) {
+			if (codePoint <= Character.MAX_VALUE)
+				return this.bmpAdvances[codePoint];
+			synchronized (this.supplementaryAdvances) {
+				return this.supplementaryAdvances.get(codePoint);
+			}
+		}
+
+		/**
+		 * Measures and caches the advance of the given code point.
+		 *
+		 * @return the advance, or {@link Float#NaN} if it cannot be measured
+		 */
+		private float resolve(int codePoint) {
+			float advance = measure(codePoint);
+			if (Float.isNaN(advance))
+				return advance;
+
+			if (codePoint <= Character.MAX_VALUE) {
+				this.bmpAdvances[codePoint] = advance;
+			} else {
+				synchronized (this.supplementaryAdvances) {
+					this.supplementaryAdvances.put(codePoint, advance);
+				}
+			}
+			return advance;
+		}
+	}
+}
@@ -0,0 +1,116 @@
+/*
+ * Copyright © 2024 LambdAurora <email@lambdaurora.dev>
+ *
+ * This file is part of SpruceUI.
+ *
+ * Licensed under the MIT license. For more information,
+ * see the LICENSE file.
+ */
+
+package dev.lambdaurora.spruceui.text;
+
+import it.unimi.dsi.fastutil.ints.IntArrayList;
+import net.minecraft.network.chat.Style;
+import net.minecraft.util.FormattedCharSequence;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Represents the styled tokens of a line produced by a {@link SyntaxHighlighter}.
+ *
+ * @author LambdAurora
+ * @version 6.2.0
+ * @since 6.2.0
+ */
+public final class HighlightedLine {
+	private final int[] starts;
+	private final int[] ends;
+	private final Style[] styles;
+	private final int endState;
+
+	private HighlightedLine(int[] starts, int[] ends, Style[] styles, int endState) {
+		this.starts = starts;
+		this.ends = ends;
+		this.styles = styles;
+		this.endState = endState;
+	}
+
+	/**
+	 * Tokenizes the given line.
+	 *
+	 * @param highlighter the highlighter
+	 * @param line the line, without its line break
+	 * @param state the lexer state at the start of the line
+	 * @return the highlighted line
+	 */
+	public static HighlightedLine highlight(SyntaxHighlighter highlighter, String line, int state) {
+		var starts = new IntArrayList();
+		var ends = new IntArrayList();
+		var styles = new ArrayList<Style>();
+
+		int endState = highlighter.highlightLine(line, state, (start, end, style) -> {
+			// Keep the tokens ordered and within the line.
+			start = Math.max(start, ends.isEmpty() ? 0 : ends.getInt(ends.size() - 1));
+			end = Math.min(end, line.length());
+			if (start >= end)
+				return;
+
+			starts.add(start);
+			ends.add(end);
+			styles.add(style);
+		});
+
+		return new HighlightedLine(starts.toIntArray(), ends.toIntArray(), styles.toArray(new Style[0]), endState);
+	}
+
+	/**
+	 * {@return the lexer state at the end of the line}
+	 */
+	public int getEndState() {
+		return this.endState;
+	}
+
+	/**
+	 * Builds the styled text of a part of the line, such as a wrapped row.
+	 *
+	 * @param text the text of the part of the line
+	 * @param start the start of the part in the line
+	 * @return the styled text
+	 */
+	public FormattedCharSequence slice(String text, int start) {
+		int end = start + text.length();
+		int token = this.firstEndingAfter(start);
+		if (token == this.starts.length || this.starts[token] >= end)
+			return FormattedCharSequence.forward(text, Style.EMPTY);
+
+		List<FormattedCharSequence> parts = new ArrayList<>();
+		int position = start;
+		for (; token < this.starts.length && this.starts[token] < end; token++) {
+			int tokenStart = Math.max(this.starts[token], start);
+			int tokenEnd = Math.min(this.ends[token], end);
+
+			if (tokenStart > position)
+				parts.add(FormattedCharSequence.forward(text.substring(position - start, tokenStart - start), Style.EMPTY));
+			parts.add(FormattedCharSequence.forward(text.substring(tokenStart - start, tokenEnd - start), this.styles[token]));
+			position = tokenEnd;
+		}
+
+		if (position < end)
+			parts.add(FormattedCharSequence.forward(text.substring(position - start), Style.EMPTY));
+		return FormattedCharSequence.composite(parts);
+	}
+
+	private int firstEndingAfter(int offset) {
+		int low = 0;
+		int high = this.ends.length;
+		while (low < high) {
+			int middle = (low + high) >>> 1;
+			if (this.ends[middle] <= offset)
+				low = middle + 1;
+			else
+				high = middle;
+		}
+		return low;
+	}
+}
@@ -0,0 +1,202 @@
+/*
+ * Copyright © 2024 LambdAurora <email@lambdaurora.dev>
+ *
+ * This file is part of SpruceUI.
+ *
+ * Licensed under the MIT license. For more information,
+ * see the LICENSE file.
+ */
+
+package dev.lambdaurora.spruceui.text;
+
+import it.unimi.dsi.fastutil.floats.FloatArrayList;
+import it.unimi.dsi.fastutil.ints.IntArrayList;
+
+import java.text.BreakIterator;
+
+/**
+ * Represents the line break opportunities of a logical line, along with the width of the line up to each of them.
+ * <p>
+ * The break opportunities follow the {@link BreakIterator#getLineInstance() line break rules} and are measured once,
+ * wrapping the line at any width is then a greedy pass over the cached widths which does not measure the text again,
+ * except for words wider than a whole row which have to be split between two glyphs.
+ * Like {@link net.minecraft.client.StringSplitter}, the spaces at the end of a row do not have to fit in it.
+ * The measurements are only valid for the glyph advance cache generation they were made with.
+ *
+ * @author LambdAurora
+ * @version 6.2.0
+ * @since 6.2.0
+ */
+public final class LineBreaks {
+	/**
+	 * Creating a break iterator loads the break rules of the locale, so one iterator is kept per thread.
+	 */
+	private static final ThreadLocal<BreakIterator> BREAK_ITERATOR = ThreadLocal.withInitial(BreakIterator::getLineInstance);
+
+	private final String line;
+	/**
+	 * The offsets of the break opportunities, starting with {@code 0} and ending with the length of the line.
+	 */
+	private final int[] offsets;
+	/**
+	 * The width of the line up to each break opportunity.
+	 */
+	private final float[] widths;
+	/**
+	 * The width of the line up to each break opportunity, without the spaces right before it.
+	 */
+	private final float[] fitWidths;
+	private final int glyphGeneration;
+
+	private LineBreaks(String line, int[] offsets, float[] widths, float[] fitWidths, int glyphGeneration) {
+		this.line = line;
+		this.offsets = offsets;
+		this.widths = widths;
+		this.fitWidths = fitWidths;
+		this.glyphGeneration = glyphGeneration;
+	}
+
+	/**
+	 * Finds and measures the break opportunities of the given line.
+	 *
+	 * @param line the line, without any line break
+	 * @return the break opportunities of the line
+	 */
+	public static LineBreaks of(String line) {
+		int glyphGeneration = GlyphAdvanceCache.getGeneration();
+		// Off the render thread, resolve the misses of the whole line at once instead of once per code point.
+		GlyphAdvanceCache.resolveMisses(line, 0, line.length());
+		var offsets = new IntArrayList();
+		var widths = new FloatArrayList();
+		var fitWidths = new FloatArrayList();
+		offsets.add(0);
+		widths.add(0.f);
+		fitWidths.add(0.f);
+
+		var iterator = BREAK_ITERATOR.get();
+		iterator.setText(line);
+		boolean formatted = line.indexOf(GlyphAdvanceCache.FORMATTING_CODE_PREFIX) != -1;
+		float width = 0.f;
+		// The width up to the last glyph which is not a space.
+		float fitWidth = 0.f;
+		int start = 0;
+		for (int end = iterator.next(); end != BreakIterator.DONE; end = iterator.next()) {
+			if (formatted) {
+				int contentEnd = end;
+				while (contentEnd > start && line.charAt(contentEnd - 1) == ' ')
+					contentEnd--;
+
+				if (contentEnd == end) {
+					width += GlyphAdvanceCache.width(line, start, end);
+					fitWidth = width;
+				} else {
+					if (contentEnd > start)
+						fitWidth = width + GlyphAdvanceCache.width(line, start, contentEnd);
+					width += GlyphAdvanceCache.width(line, start, end);
+				}
+			} else {
+				for (int i = start; i < end; ) {
+					int codePoint = line.codePointAt(i);
+					width += GlyphAdvanceCache.getAdvance(codePoint);
+					if (codePoint != ' ')
+						fitWidth = width;
+					i += Character.charCount(codePoint);
+				}
+			}
+
+			offsets.add(end);
+			widths.add(width);
+			fitWidths.add(fitWidth);
+			start = end;
+		}
+		// Do not keep the line alive through the cached iterator.
+		iterator.setText("");
+
+		return new LineBreaks(line, offsets.toIntArray(), widths.toFloatArray(), fitWidths.toFloatArray(), glyphGeneration);
+	}
+
+	/**
+	 * {@return the line}
+	 */
+	public String getLine() {
+		return this.line;
+	}
+
+	/**
+	 * {@return the generation of the glyph advance cache this line got measured with}
+	 *
+	 * @see GlyphAdvanceCache#getGeneration()
+	 */
+	public int getGlyphGeneration() {
+		return this.glyphGeneration;
+	}
+
+	/**
+	 * Returns the end of the row starting at the given offset when wrapping the line at the given width.
+	 * <p>
+	 * The row ends at the last break opportunity which fits, or between two glyphs if the next word does not fit in a whole row.
+	 * The spaces right before a break opportunity stay in the row but do not need to fit in it.
+	 *
+	 * @param start the start offset of the row, which is the end of the previous row
+	 * @param width the maximum width of a row
+	 * @return the end offset of the row, greater than {@code start} unless the line is empty
+	 */
+	public int getRowEnd(int start, int width) {
+		if (start >= this.line.length())
+			return this.line.length();
+
+		// The first break opportunity after the start of the row.
+		int next = this.findBreakAfter(start);
+		float limit = this.getX(start, next) + width;
+
+		// Finds the last break opportunity which fits, ignoring the spaces before it, next - 1 if none fits.
+		int low = next - 1;
+		int high = this.offsets.length - 1;
+		while (low < high) {
+			int middle = (low + high + 1) >>> 1;
+			if (this.fitWidths[middle] <= limit)
+				low = middle;
+			else
+				high = middle - 1;
+		}
+
+		if (low >= next)
+			return this.offsets[low];
+
+		// The next word is wider than a whole row.
+		int end = GlyphAdvanceCache.headEndAtWidth(this.line, start, this.offsets[next], width);
+		if (end == start) {
+			// Always make progress, even if a single glyph is wider than the row.
+			end = start + Character.charCount(this.line.codePointAt(start));
+		}
+		return end;
+	}
+
+	private int findBreakAfter(int offset) {
+		int low = 0;
+		int high = this.offsets.length - 1;
+		while (low < high) {
+			int middle = (low + high) >>> 1;
+			if (this.offsets[middle] <= offset)
+				low = middle + 1;
+			else
+				high = middle;
+		}
+		return low;
+	}
+
+	/**
+	 * Returns the width of the line up to the given offset.
+	 *
+	 * @param offset the offset
+	 * @param next the index of the first break opportunity after the offset
+	 * @return the width up to the offset
+	 */
+	private float getX(int offset, int next) {
+		int previous = this.offsets[next - 1];
+		if (previous == offset)
+			return this.widths[next - 1];
+		// The offset is within a word which got split.
+		return this.widths[next - 1] + GlyphAdvanceCache.width(this.line, previous, offset);
+	}
+}
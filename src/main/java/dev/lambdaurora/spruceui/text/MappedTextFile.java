@@ -0,0 +1,233 @@
+/*
+ * Copyright © 2024 LambdAurora <email@lambdaurora.dev>
+ *
+ * This file is part of SpruceUI.
+ *
+ * Licensed under the MIT license. For more information,
+ * see the LICENSE file.
+ */
+
+package dev.lambdaurora.spruceui.text;
+
+import it.unimi.dsi.fastutil.longs.LongArrayList;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Represents a read-only UTF-8 text file mapped in memory, whose lines are decoded on demand.
+ * <p>
+ * The file is split into lines by {@code \n} characters, a trailing {@code \r} being stripped from the decoded lines.
+ * The line index is built lazily while lines are requested, or incrementally using {@link #index(long)},
+ * and only keeps the offset of every {@value #INDEX_STRIDE}th line, which keeps its memory usage low.
+ *
+ * @author LambdAurora
+ * @version 6.2.0
+ * @since 6.2.0
+ */
+public final class MappedTextFile implements Closeable {
+	private static final int SEGMENT_SHIFT = 30;
+	private static final long SEGMENT_SIZE = 1L << SEGMENT_SHIFT;
+	/**
+	 * The number of lines between two offsets kept in the line index.
+	 */
+	private static final int INDEX_STRIDE = 32;
+	/**
+	 * The maximum number of bytes decoded from a single line, longer lines are truncated.
+	 */
+	private static final int MAX_LINE_BYTES = 1024 * 1024;
+	/**
+	 * The number of bytes indexed at once when looking up a line which is not indexed yet.
+	 */
+	private static final int LOOKUP_INDEX_BYTES = 64 * 1024;
+
+	private final FileChannel channel;
+	private final long size;
+	private final MappedByteBuffer[] segments;
+	/**
+	 * The start offset of every {@value #INDEX_STRIDE}th line.
+	 */
+	private final LongArrayList checkpoints = new LongArrayList();
+	private long scannedOffset = 0;
+	private int indexedLines = 1;
+
+	private MappedTextFile(FileChannel channel) throws IOException {
+		this.channel = channel;
+		this.size = channel.size();
+
+		int segmentCount = (int) ((this.size + SEGMENT_SIZE - 1) >>> SEGMENT_SHIFT);
+		this.segments = new MappedByteBuffer[segmentCount];
+		for (int i = 0; i < segmentCount; i++) {
+			long start = (long) i << SEGMENT_SHIFT;
+			this.segments[i] = channel.map(FileChannel.MapMode.READ_ONLY, start, Math.min(SEGMENT_SIZE, this.size - start));
+		}
+
+		this.checkpoints.add(0L);
+	}
+
+	/**
+	 * Opens and maps the given file.
+	 *
+	 * @param path the path of the file
+	 * @return the mapped text file
+	 * @throws IOException if the file could not be opened or mapped
+	 */
+	public static MappedTextFile open(Path path) throws IOException {
+		var channel = FileChannel.open(path, StandardOpenOption.READ);
+		try {
+			return new MappedTextFile(channel);
+		} catch (IOException e) {
+			channel.close();
+			throw e;
+		}
+	}
+
+	/**
+	 * {@return the size of the file in bytes}
+	 */
+	public long size() {
+		return this.size;
+	}
+
+	/**
+	 * {@return {@code true} if the whole file has been indexed, or {@code false} otherwise}
+	 */
+	public boolean isFullyIndexed() {
+		return this.scannedOffset >= this.size;
+	}
+
+	/**
+	 * {@return the number of lines known so far, which is the number of lines of the file once it is fully indexed}
+	 */
+	public int getIndexedLineCount() {
+		return this.indexedLines;
+	}
+
+	/**
+	 * Returns the number of lines of the file, indexing the whole file if needed.
+	 *
+	 * @return the number of lines
+	 */
+	public int getLineCount() {
+		this.index(Long.MAX_VALUE);
+		return this.indexedLines;
+	}
+
+	/**
+	 * Returns whether the given line exists, indexing the file only as far as needed to know it.
+	 *
+	 * @param line the line
+	 * @return {@code true} if the line exists, or {@code false} otherwise
+	 */
+	public boolean hasLine(int line) {
+		while (line >= this.indexedLines && !this.isFullyIndexed()) {
+			this.index(LOOKUP_INDEX_BYTES);
+		}
+		return line >= 0 && line < this.indexedLines;
+	}
+
+	/**
+	 * Indexes the lines of the file further.
+	 *
+	 * @param maxBytes the maximum number of bytes to scan
+	 * @return {@code true} if the whole file has been indexed, or {@code false} otherwise
+	 */
+	public boolean index(long maxBytes) {
+		long end = maxBytes >= this.size - this.scannedOffset ? this.size : this.scannedOffset + maxBytes;
+
+		while (this.scannedOffset < end) {
+			var segment = this.segments[(int) (this.scannedOffset >>> SEGMENT_SHIFT)];
+			long segmentStart = this.scannedOffset & ~(SEGMENT_SIZE - 1);
+			int from = (int) (this.scannedOffset - segmentStart);
+			int to = (int) Math.min(segment.limit(), end - segmentStart);
+
+			for (int i = from; i < to; i++) {
+				if (segment.get(i) == '\n') {
+					if (this.indexedLines % INDEX_STRIDE == 0)
+						this.checkpoints.add(segmentStart + i + 1);
+					this.indexedLines++;
+				}
+			}
+
+			this.scannedOffset = segmentStart + to;
+		}
+
+		return this.isFullyIndexed();
+	}
+
+	/**
+	 * Returns the offset in bytes of the start of the given line.
+	 *
+	 * @param line the line
+	 * @return the start offset of the line
+	 * @throws IndexOutOfBoundsException if the line does not exist
+	 */
+	public long getLineStart(int line) {
+		if (!this.hasLine(line))
+			throw new IndexOutOfBoundsException("line " + line + ", line count " + this.indexedLines);
+
+		long offset = this.checkpoints.getLong(line / INDEX_STRIDE);
+		for (int skipped = line % INDEX_STRIDE; skipped > 0; skipped--) {
+			offset = this.findLineEnd(offset) + 1;
+		}
+		return offset;
+	}
+
+	/**
+	 * Returns the given line, decoded as UTF-8.
+	 *
+	 * @param line the line
+	 * @return the decoded line
+	 * @throws IndexOutOfBoundsException if the line does not exist
+	 */
+	public String getLine(int line) {
+		long start = this.getLineStart(line);
+		long end = this.findLineEnd(start);
+		if (end > start && this.getByte(end - 1) == '\r')
+			end--;
+
+		int length = (int) Math.min(end - start, MAX_LINE_BYTES);
+		// A truncated line is cut before the code point it would split, which starts at a byte that is not a continuation byte.
+		while (length > 0 && length < end - start && (this.getByte(start + length) & 0xc0) == 0x80)
+			length--;
+
+		var bytes = new byte[length];
+		for (int i = 0; i < bytes.length; i++) {
+			bytes[i] = this.getByte(start + i);
+		}
+		return new String(bytes, StandardCharsets.UTF_8);
+	}
+
+	@Override
+	public void close() throws IOException {
+		this.channel.close();
+	}
+
+	/**
+	 * Finds the end of the line starting at the given offset.
+	 *
+	 * @param offset the start offset of a line
+	 * @return the offset of the line feed ending the line, or the size of the file if it is the last line
+	 */
+	private long findLineEnd(long offset) {
+		while (offset < this.size) {
+			var segment = this.segments[(int) (offset >>> SEGMENT_SHIFT)];
+			long segmentStart = offset & ~(SEGMENT_SIZE - 1);
+			for (int i = (int) (offset - segmentStart); i < segment.limit(); i++) {
+				if (segment.get(i) == '\n')
+					return segmentStart + i;
+			}
+			offset = segmentStart + segment.limit();
+		}
+		return this.size;
+	}
+
+	private byte getByte(long offset) {
+		return this.segments[(int) (offset >>> SEGMENT_SHIFT)].get((int) (offset & (SEGMENT_SIZE - 1)));
+	}
+}
@@ -0,0 +1,287 @@
+/*
+ * Copyright © 2024 LambdAurora <email@lambdaurora.dev>
+ *
+ * This file is part of SpruceUI.
+ *
+ * Licensed under the MIT license. For more information,
+ * see the LICENSE file.
+ */
+
+package dev.lambdaurora.spruceui.text;
+
+/**
+ * Represents the format of a numeric text input, either an integer in a given radix or a decimal number, within bounds.
+ * <p>
+ * The text is validated by a single scan over its characters, which neither allocates nor throws,
+ * unlike parsing it and catching {@link NumberFormatException}.
+ * The prefixes of valid numbers, such as {@code "-"} or {@code "1e"}, are accepted as incomplete so that they can be typed,
+ * and numbers out of the bounds are accepted but not valid so that typing a number can go through them.
+ *
+ * @author LambdAurora
+ * @version 6.2.0
+ * @since 6.2.0
+ */
+public final class NumberInputFormat {
+	/**
+	 * The format of {@code int} values.
+	 */
+	public static final NumberInputFormat INT = integer(Integer.MIN_VALUE, Integer.MAX_VALUE);
+	/**
+	 * The format of {@code long} values.
+	 */
+	public static final NumberInputFormat LONG = integer(Long.MIN_VALUE, Long.MAX_VALUE);
+	/**
+	 * The format of unbounded decimal numbers, parsed as {@code float} or {@code double} values.
+	 */
+	public static final NumberInputFormat DECIMAL = decimal(Double.NEGATIVE_INFINITY, Double.POSITIVE_INFINITY);
+	/**
+	 * The format of finite {@code float} values, larger numbers being out of bounds.
+	 */
+	public static final NumberInputFormat FLOAT = decimal(-Float.MAX_VALUE, Float.MAX_VALUE);
+	/**
+	 * The format of finite {@code double} values, larger numbers being out of bounds.
+	 */
+	public static final NumberInputFormat DOUBLE = decimal(-Double.MAX_VALUE, Double.MAX_VALUE);
+
+	private final boolean decimal;
+	private final int radix;
+	private final long minInteger;
+	private final long maxInteger;
+	private final double minDecimal;
+	private final double maxDecimal;
+
+	private NumberInputFormat(boolean decimal, int radix, long minInteger, long maxInteger, double minDecimal, double maxDecimal) {
+		this.decimal = decimal;
+		this.radix = radix;
+		this.minInteger = minInteger;
+		this.maxInteger = maxInteger;
+		this.minDecimal = minDecimal;
+		this.maxDecimal = maxDecimal;
+	}
+
+	/**
+	 * Creates the format of decimal integers within the given bounds.
+	 *
+	 * @param min the minimum value, inclusive
+	 * @param max the maximum value, inclusive
+	 * @return the format
+	 */
+	public static NumberInputFormat integer(long min, long max) {
+		return integer(min, max, 10);
+	}
+
+	/**
+	 * Creates the format of integers in the given radix within the given bounds.
+	 *
+	 * @param min the minimum value, inclusive
+	 * @param max the maximum value, inclusive
+	 * @param radix the radix, between {@link Character#MIN_RADIX} and {@link Character#MAX_RADIX}
+	 * @return the format
+	 */
+	public static NumberInputFormat integer(long min, long max, int radix) {
+		if (min > max)
+			throw new IllegalArgumentException("The minimum value cannot be greater than the maximum value.");
+		if (radix < Character.MIN_RADIX || radix > Character.MAX_RADIX)
+			throw new IllegalArgumentException("Invalid radix " + radix + ".");
+		return new NumberInputFormat(false, radix, min, max, min, max);
+	}
+
+	/**
+	 * Creates the format of decimal numbers within the given bounds.
+	 * <p>
+	 * Decimal numbers have an optional sign, a fractional part and an exponent, as accepted by {@link Double#parseDouble(String)}.
+	 *
+	 * @param min the minimum value, inclusive, which can be {@link Double#NEGATIVE_INFINITY} for no minimum
+	 * @param max the maximum value, inclusive, which can be {@link Double#POSITIVE_INFINITY} for no maximum
+	 * @return the format
+	 */
+	public static NumberInputFormat decimal(double min, double max) {
+		if (!(min <= max))
+			throw new IllegalArgumentException("The minimum value cannot be greater than the maximum value.");
+		return new NumberInputFormat(true, 10, Long.MIN_VALUE, Long.MAX_VALUE, min, max);
+	}
+
+	/**
+	 * {@return {@code true} if this format accepts decimal numbers, or {@code false} if it only accepts integers}
+	 */
+	public boolean isDecimal() {
+		return this.decimal;
+	}
+
+	/**
+	 * {@return the radix of the integers of this format, {@code 10} for decimal numbers}
+	 */
+	public int getRadix() {
+		return this.radix;
+	}
+
+	/**
+	 * Validates the given text.
+	 *
+	 * @param text the text
+	 * @return the validity of the text
+	 */
+	public Validity validate(CharSequence text) {
+		int length = text.length();
+		int i = 0;
+		boolean negative = false;
+		if (i < length && (text.charAt(i) == '-' || text.charAt(i) == '+')) {
+			negative = text.charAt(i) == '-';
+			i++;
+		}
+
+		if (this.decimal)
+			return this.validateDecimal(text, i);
+
+		if (i == length)
+			return Validity.INCOMPLETE;
+
+		// The value is accumulated negatively as the negative range is larger, the same way Long#parseLong does.
+		long limit = negative ? Long.MIN_VALUE : -Long.MAX_VALUE;
+		long multiplyMin = limit / this.radix;
+		long value = 0;
+		boolean overflow = false;
+		for (; i < length; i++) {
+			int digit = Character.digit(text.charAt(i), this.radix);
+			if (digit < 0)
+				return Validity.REJECTED;
+
+			if (!overflow) {
+				if (value < multiplyMin || value * this.radix < limit + digit)
+					overflow = true;
+				else
+					value = value * this.radix - digit;
+			}
+		}
+
+		if (overflow)
+			return Validity.OUT_OF_BOUNDS;
+
+		value = negative ? value : -value;
+		return value < this.minInteger || value > this.maxInteger ? Validity.OUT_OF_BOUNDS : Validity.VALID;
+	}
+
+	private Validity validateDecimal(CharSequence text, int start) {
+		int length = text.length();
+		int i = start;
+		boolean digits = false;
+
+		while (i < length && isDigit(text.charAt(i))) {
+			digits = true;
+			i++;
+		}
+
+		if (i < length && text.charAt(i) == '.') {
+			i++;
+			while (i < length && isDigit(text.charAt(i))) {
+				digits = true;
+				i++;
+			}
+		}
+
+		if (!digits)
+			return i == length ? Validity.INCOMPLETE : Validity.REJECTED;
+
+		if (i < length && (text.charAt(i) == 'e' || text.charAt(i) == 'E')) {
+			i++;
+			if (i < length && (text.charAt(i) == '-' || text.charAt(i) == '+'))
+				i++;
+			if (i == length)
+				return Validity.INCOMPLETE;
+
+			while (i < length && isDigit(text.charAt(i)))
+				i++;
+		}
+
+		if (i != length)
+			return Validity.REJECTED;
+
+		// Bounds require the value, the text is known to be a valid number at this point.
+		if (this.minDecimal != Double.NEGATIVE_INFINITY || this.maxDecimal != Double.POSITIVE_INFINITY) {
+			double value = Double.parseDouble(text.toString());
+			if (value < this.minDecimal || value > this.maxDecimal)
+				return Validity.OUT_OF_BOUNDS;
+		}
+
+		return Validity.VALID;
+	}
+
+	/**
+	 * {@return {@code true} if the given text is accepted as input, which may be incomplete or out of bounds, or {@code false} otherwise}
+	 *
+	 * @param text the text
+	 */
+	public boolean accepts(CharSequence text) {
+		return this.validate(text) != Validity.REJECTED;
+	}
+
+	/**
+	 * Parses the given text as an integer.
+	 *
+	 * @param text the text
+	 * @param fallback the value returned if the text is not a valid integer of this format
+	 * @return the parsed integer, or the fallback value
+	 */
+	public long parseInteger(CharSequence text, long fallback) {
+		if (this.decimal || this.validate(text) != Validity.VALID)
+			return fallback;
+
+		int i = 0;
+		boolean negative = text.charAt(0) == '-';
+		if (negative || text.charAt(0) == '+')
+			i++;
+
+		long value = 0;
+		for (; i < text.length(); i++)
+			value = value * this.radix - Character.digit(text.charAt(i), this.radix);
+		return negative ? value : -value;
+	}
+
+	/**
+	 * Parses the given text as a decimal number.
+	 *
+	 * @param text the text
+	 * @param fallback the value returned if the text is not a valid number of this format
+	 * @return the parsed number, or the fallback value
+	 */
+	public double parseDecimal(CharSequence text, double fallback) {
+		if (this.validate(text) != Validity.VALID)
+			return fallback;
+		if (!this.decimal)
+			return this.parseInteger(text, 0);
+		return Double.parseDouble(text.toString());
+	}
+
+	private static boolean isDigit(char c) {
+		return c >= '0' && c <= '9';
+	}
+
+	/**
+	 * Represents the validity of a numeric text.
+	 */
+	public enum Validity {
+		/**
+		 * The text is not a number nor the start of a number.
+		 */
+		REJECTED,
+		/**
+		 * The text is the start of a number, such as an empty text or a sign.
+		 */
+		INCOMPLETE,
+		/**
+		 * The text is a number, but out of the bounds of the format.
+		 */
+		OUT_OF_BOUNDS,
+		/**
+		 * The text is a number within the bounds of the format.
+		 */
+		VALID;
+
+		/**
+		 * {@return {@code true} if the text is a number within the bounds of the format, or {@code false} otherwise}
+		 */
+		public boolean isValid() {
+			return this == VALID;
+		}
+	}
+}
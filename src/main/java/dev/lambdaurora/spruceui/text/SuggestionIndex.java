@@ -0,0 +1,317 @@
+/*
+ * Copyright © 2024 LambdAurora <email@lambdaurora.dev>
+ *
+ * This file is part of SpruceUI.
+ *
+ * Licensed under the MIT license. For more information,
+ * see the LICENSE file.
+ */
+
+package dev.lambdaurora.spruceui.text;
+
+import it.unimi.dsi.fastutil.ints.IntArrayList;
+import it.unimi.dsi.fastutil.ints.IntArrays;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Collection;
+import java.util.Comparator;
+
+/**
+ * Represents an immutable index of suggestion candidates, such as registry identifiers.
+ * <p>
+ * The candidates are sorted by their lowercase keys, so the candidates starting with a prefix are a contiguous range.
+ * A {@link Narrowing} keeps the range of each prefix of the query, typing a character narrows the previous range with
+ * a binary search on a single character, and erasing one goes back to an already known range.
+ * <p>
+ * Fuzzy matching finds the candidates containing the characters of the query in order, ranked by a score.
+ * It scans the candidates, but a query extending the previous one only scans the previous matches.
+ *
+ * @author LambdAurora
+ * @version 6.2.0
+ * @since 6.2.0
+ */
+public final class SuggestionIndex {
+	private static final int CONSECUTIVE_BONUS = 5;
+	private static final int WORD_START_BONUS = 8;
+
+	private final String[] candidates;
+	/**
+	 * The lowercase keys of the candidates, in the same order.
+	 */
+	private final String[] keys;
+
+	private SuggestionIndex(String[] candidates, String[] keys) {
+		this.candidates = candidates;
+		this.keys = keys;
+	}
+
+	/**
+	 * Creates an index of the given suggestion candidates.
+	 *
+	 * @param candidates the candidates
+	 * @return the index
+	 */
+	public static SuggestionIndex of(Collection<String> candidates) {
+		var sorted = candidates.stream().distinct().map(candidate -> new String[] {toKey(candidate), candidate})
+				.sorted(Comparator.<String[], String>comparing(entry -> entry[0]).thenComparing(entry -> entry[1]))
+				.toArray(String[][]::new);
+
+		var sortedCandidates = new String[sorted.length];
+		var keys = new String[sorted.length];
+		for (int i = 0; i < sorted.length; i++) {
+			keys[i] = sorted[i][0];
+			sortedCandidates[i] = sorted[i][1];
+		}
+		return new SuggestionIndex(sortedCandidates, keys);
+	}
+
+	/**
+	 * Converts the given text to a key, lowercasing it character by character so that its length is kept.
+	 */
+	private static String toKey(String text) {
+		var chars = text.toCharArray();
+		for (int i = 0; i < chars.length; i++)
+			chars[i] = Character.toLowerCase(chars[i]);
+		return new String(chars);
+	}
+
+	/**
+	 * {@return the number of candidates}
+	 */
+	public int size() {
+		return this.candidates.length;
+	}
+
+	/**
+	 * Returns the candidate at the given index, the candidates being sorted by their lowercase form.
+	 *
+	 * @param index the index of the candidate
+	 * @return the candidate
+	 */
+	public String get(int index) {
+		return this.candidates[index];
+	}
+
+	/**
+	 * {@return a new narrowing of the candidates by prefix, starting with an empty prefix which matches every candidate}
+	 */
+	public Narrowing narrow() {
+		return new Narrowing();
+	}
+
+	/**
+	 * Finds the candidates matching the given query fuzzily.
+	 *
+	 * @param query the query
+	 * @param previous the matches of a previous query, which are scanned instead of every candidate if the query extends it,
+	 * or {@code null}
+	 * @return the matches
+	 */
+	public FuzzyMatches fuzzyMatch(String query, @Nullable FuzzyMatches previous) {
+		var lowerQuery = toKey(query);
+		var matches = new IntArrayList();
+		var scores = new IntArrayList();
+
+		if (previous != null && previous.index == this && lowerQuery.startsWith(previous.query)) {
+			// Candidates which did not contain the previous query in order cannot contain the extended query.
+			for (int candidate : previous.matches)
+				this.addFuzzyMatch(candidate, lowerQuery, matches, scores);
+		} else {
+			for (int candidate = 0; candidate < this.keys.length; candidate++)
+				this.addFuzzyMatch(candidate, lowerQuery, matches, scores);
+		}
+
+		int[] matchArray = matches.toIntArray();
+		int[] scoreArray = scores.toIntArray();
+		int[] ranks = new int[matchArray.length];
+		for (int i = 0; i < ranks.length; i++)
+			ranks[i] = i;
+		// Ties keep the sorted order of the candidates.
+		IntArrays.stableSort(ranks, (a, b) -> Integer.compare(scoreArray[b], scoreArray[a]));
+
+		int[] ranked = new int[ranks.length];
+		for (int i = 0; i < ranks.length; i++)
+			ranked[i] = matchArray[ranks[i]];
+		return new FuzzyMatches(this, lowerQuery, matchArray, ranked);
+	}
+
+	private void addFuzzyMatch(int candidate, String query, IntArrayList matches, IntArrayList scores) {
+		int score = fuzzyScore(this.keys[candidate], query);
+		if (score != Integer.MIN_VALUE) {
+			matches.add(candidate);
+			scores.add(score);
+		}
+	}
+
+	/**
+	 * Scores how well the given key matches the given query, matching each character of the query to its first occurrence.
+	 * <p>
+	 * Consecutive characters and characters at the start of a word are favored, while skipped characters are penalized.
+	 *
+	 * @param key the lowercase key
+	 * @param query the lowercase query
+	 * @return the score, or {@link Integer#MIN_VALUE} if the key does not contain the characters of the query in order
+	 */
+	private static int fuzzyScore(String key, String query) {
+		int score = 0;
+		int position = 0;
+		int previousMatch = -2;
+		for (int i = 0; i < query.length(); i++) {
+			int match = key.indexOf(query.charAt(i), position);
+			if (match == -1)
+				return Integer.MIN_VALUE;
+
+			if (match == previousMatch + 1)
+				score += CONSECUTIVE_BONUS;
+			if (match == 0 || isWordSeparator(key.charAt(match - 1)))
+				score += WORD_START_BONUS;
+			score -= match - position;
+
+			previousMatch = match;
+			position = match + 1;
+		}
+		// Shorter candidates are closer to the query.
+		return score - (key.length() - position);
+	}
+
+	private static boolean isWordSeparator(char c) {
+		return c == ':' || c == '_' || c == '/' || c == '.' || c == '-' || c == ' ';
+	}
+
+	/**
+	 * Represents the candidates matching a query fuzzily.
+	 *
+	 * @param index the index of the candidates
+	 * @param query the lowercase query
+	 * @param matches the indices of the matching candidates, in sorted order
+	 * @param ranked the indices of the matching candidates, from the best match to the worst
+	 */
+	public record FuzzyMatches(SuggestionIndex index, String query, int[] matches, int[] ranked) {
+		/**
+		 * {@return the number of matching candidates}
+		 */
+		public int size() {
+			return this.ranked.length;
+		}
+
+		/**
+		 * Returns the matching candidate of the given rank.
+		 *
+		 * @param rank the rank, {@code 0} being the best match
+		 * @return the candidate
+		 */
+		public String get(int rank) {
+			return this.index.get(this.ranked[rank]);
+		}
+
+		@Override
+		public String toString() {
+			return "FuzzyMatches{query=" + this.query + ", size=" + this.size() + "}";
+		}
+	}
+
+	/**
+	 * Represents the range of the candidates starting with a prefix, which is narrowed incrementally as the prefix changes.
+	 */
+	public final class Narrowing {
+		private final StringBuilder prefix = new StringBuilder();
+		/**
+		 * The start and end of the range of each prefix length, the range of the empty prefix being the first.
+		 */
+		private final IntArrayList starts = new IntArrayList();
+		private final IntArrayList ends = new IntArrayList();
+
+		private Narrowing() {
+			this.starts.add(0);
+			this.ends.add(SuggestionIndex.this.keys.length);
+		}
+
+		/**
+		 * Updates the range to match the given prefix.
+		 * <p>
+		 * The ranges of the prefix shared with the previous prefix are kept, only the following characters are searched.
+		 *
+		 * @param prefix the prefix
+		 */
+		public void update(CharSequence prefix) {
+			int common = 0;
+			int max = Math.min(this.prefix.length(), prefix.length());
+			while (common < max && this.prefix.charAt(common) == Character.toLowerCase(prefix.charAt(common)))
+				common++;
+
+			this.prefix.setLength(common);
+			this.starts.size(common + 1);
+			this.ends.size(common + 1);
+
+			for (int depth = common; depth < prefix.length(); depth++) {
+				char c = Character.toLowerCase(prefix.charAt(depth));
+				int start = this.starts.getInt(depth);
+				int end = this.ends.getInt(depth);
+				// The keys of the range share the prefix up to this depth, so they are sorted by their character at this depth.
+				int newStart = this.search(start, end, depth, c);
+				int newEnd = this.search(newStart, end, depth, (char) (c + 1));
+				if (c == Character.MAX_VALUE)
+					newEnd = end;
+
+				this.prefix.append(c);
+				this.starts.add(newStart);
+				this.ends.add(newEnd);
+			}
+		}
+
+		/**
+		 * Finds the first key of the range whose character at the given depth is not before the given character.
+		 * Keys ending before the depth come first.
+		 */
+		private int search(int start, int end, int depth, char c) {
+			var keys = SuggestionIndex.this.keys;
+			while (start < end) {
+				int middle = (start + end) >>> 1;
+				var key = keys[middle];
+				if (key.length() <= depth || key.charAt(depth) < c)
+					start = middle + 1;
+				else
+					end = middle;
+			}
+			return start;
+		}
+
+		/**
+		 * {@return the current lowercase prefix}
+		 */
+		public String getPrefix() {
+			return this.prefix.toString();
+		}
+
+		/**
+		 * {@return the index of the first candidate starting with the prefix}
+		 */
+		public int getStart() {
+			return this.starts.getInt(this.prefix.length());
+		}
+
+		/**
+		 * {@return the index after the last candidate starting with the prefix}
+		 */
+		public int getEnd() {
+			return this.ends.getInt(this.prefix.length());
+		}
+
+		/**
+		 * {@return the number of candidates starting with the prefix}
+		 */
+		public int size() {
+			return this.getEnd() - this.getStart();
+		}
+
+		/**
+		 * Returns the candidate starting with the prefix at the given index.
+		 *
+		 * @param index the index within the matching candidates
+		 * @return the candidate
+		 */
+		public String get(int index) {
+			return SuggestionIndex.this.candidates[this.getStart() + index];
+		}
+	}
+}
@@ -0,0 +1,145 @@
+/*
+ * Copyright © 2024 LambdAurora <email@lambdaurora.dev>
+ *
+ * This file is part of SpruceUI.
+ *
+ * Licensed under the MIT license. For more information,
+ * see the LICENSE file.
+ */
+
+package dev.lambdaurora.spruceui.text;
+
+import it.unimi.dsi.fastutil.ints.IntArrayList;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.IntFunction;
+
+/**
+ * Caches the highlighting of the logical lines of a text, along with the lexer state at the start of each line.
+ * <p>
+ * Edited lines are tokenized again on {@link #update(IntFunction, int)}, and so are the following lines
+ * until the lexer state at the start of a line matches the cached one, at which point the cache has converged.
+ * The highlighting of lines which are not tokenized again yet stays available in the meantime.
+ *
+ * @author LambdAurora
+ * @version 6.2.0
+ * @since 6.2.0
+ */
+public final class SyntaxHighlightCache {
+	private final SyntaxHighlighter highlighter;
+	private final IntArrayList startStates = new IntArrayList();
+	private final List<@Nullable HighlightedLine> lines = new ArrayList<>();
+	/**
+	 * The first line which may be out of date, all the lines before are up to date.
+	 */
+	private int dirtyFrom = 0;
+	/**
+	 * The number of lines which have never been tokenized since their last edit.
+	 */
+	private int editedLines = 0;
+
+	public SyntaxHighlightCache(SyntaxHighlighter highlighter) {
+		this.highlighter = highlighter;
+	}
+
+	/**
+	 * {@return the highlighter of this cache}
+	 */
+	public SyntaxHighlighter getHighlighter() {
+		return this.highlighter;
+	}
+
+	/**
+	 * Resets this cache for a whole new text.
+	 *
+	 * @param lineCount the number of lines of the text
+	 */
+	public void reset(int lineCount) {
+		this.lines.clear();
+		this.startStates.clear();
+		this.lines.addAll(Collections.nCopies(lineCount, null));
+		this.startStates.size(lineCount);
+		this.dirtyFrom = 0;
+		this.editedLines = lineCount;
+	}
+
+	/**
+	 * Marks lines as replaced by edited lines.
+	 *
+	 * @param from the first replaced line, inclusive
+	 * @param to the last replaced line, exclusive
+	 * @param count the number of edited lines replacing them
+	 */
+	public void replaceLines(int from, int to, int count) {
+		var replaced = this.lines.subList(from, to);
+		for (var line : replaced) {
+			if (line == null)
+				this.editedLines--;
+		}
+		replaced.clear();
+		replaced.addAll(Collections.nCopies(count, null));
+
+		this.startStates.removeElements(from, to);
+		this.startStates.addElements(from, new int[count]);
+		this.editedLines += count;
+		this.dirtyFrom = Math.min(this.dirtyFrom, from);
+	}
+
+	/**
+	 * {@return {@code true} if all the lines are up to date, or {@code false} otherwise}
+	 */
+	public boolean isUpToDate() {
+		return this.dirtyFrom >= this.lines.size();
+	}
+
+	/**
+	 * Tokenizes the out-of-date lines, in order.
+	 *
+	 * @param lineProvider the provider of the text of a line, without its line break
+	 * @param maxLines the maximum number of lines to tokenize
+	 */
+	public void update(IntFunction<String> lineProvider, int maxLines) {
+		while (this.dirtyFrom < this.lines.size() && maxLines > 0) {
+			int line = this.dirtyFrom;
+			int state = line == 0 ? this.highlighter.getInitialState() : this.lines.get(line - 1).getEndState();
+			var highlighted = this.lines.get(line);
+
+			if (highlighted != null && this.startStates.getInt(line) == state) {
+				// The lexer state converged, the next lines are up to date until the next edited line.
+				this.dirtyFrom = this.findNextEditedLine(line + 1);
+				continue;
+			}
+
+			if (highlighted == null)
+				this.editedLines--;
+			this.lines.set(line, HighlightedLine.highlight(this.highlighter, lineProvider.apply(line), state));
+			this.startStates.set(line, state);
+			this.dirtyFrom++;
+			maxLines--;
+		}
+	}
+
+	/**
+	 * Returns the highlighting of the given line, which may be out of date if the line is not edited but a previous line is.
+	 *
+	 * @param line the line
+	 * @return the highlighting of the line, or {@code null} if the line has not been tokenized since its last edit
+	 */
+	public @Nullable HighlightedLine get(int line) {
+		return line >= 0 && line < this.lines.size() ? this.lines.get(line) : null;
+	}
+
+	private int findNextEditedLine(int from) {
+		if (this.editedLines == 0)
+			return this.lines.size();
+
+		for (int line = from; line < this.lines.size(); line++) {
+			if (this.lines.get(line) == null)
+				return line;
+		}
+		return this.lines.size();
+	}
+}
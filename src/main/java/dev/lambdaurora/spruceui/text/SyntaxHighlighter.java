@@ -0,0 +1,59 @@
+/*
+ * Copyright © 2024 LambdAurora <email@lambdaurora.dev>
+ *
+ * This file is part of SpruceUI.
+ *
+ * Licensed under the MIT license. For more information,
+ * see the LICENSE file.
+ */
+
+package dev.lambdaurora.spruceui.text;
+
+import net.minecraft.network.chat.Style;
+
+/**
+ * Represents a line-based tokenizer which styles text for syntax highlighting.
+ * <p>
+ * Lines are tokenized one at a time, the lexer state at the end of a line being given to the next line.
+ * The state is an integer so it can be cached per line and compared cheaply:
+ * once a re-tokenized line ends with the same state as before, the following lines do not need to be tokenized again.
+ * <p>
+ * The styles should not change the advance of the glyphs, such as bold does, as the text is measured without its style.
+ *
+ * @author LambdAurora
+ * @version 6.2.0
+ * @since 6.2.0
+ */
+public interface SyntaxHighlighter {
+	/**
+	 * {@return the lexer state at the start of the text}
+	 */
+	default int getInitialState() {
+		return 0;
+	}
+
+	/**
+	 * Tokenizes a line.
+	 *
+	 * @param line the line, without its line break
+	 * @param state the lexer state at the start of the line
+	 * @param tokens the consumer of the styled tokens, which must be given in order
+	 * @return the lexer state at the end of the line
+	 */
+	int highlightLine(String line, int state, TokenConsumer tokens);
+
+	/**
+	 * Represents a consumer of styled tokens.
+	 */
+	@FunctionalInterface
+	interface TokenConsumer {
+		/**
+		 * Accepts a styled token.
+		 *
+		 * @param start the start of the token in the line, inclusive
+		 * @param end the end of the token in the line, exclusive
+		 * @param style the style of the token
+		 */
+		void accept(int start, int end, Style style);
+	}
+}
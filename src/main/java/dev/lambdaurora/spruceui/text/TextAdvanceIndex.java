@@ -0,0 +1,203 @@
+/*
+ * Copyright © 2024 LambdAurora <email@lambdaurora.dev>
+ *
+ * This file is part of SpruceUI.
+ *
+ * Licensed under the MIT license. For more information,
+ * see the LICENSE file.
+ */
+
+package dev.lambdaurora.spruceui.text;
+
+import net.minecraft.util.math.MathHelper;
+
+/**
+ * Represents the cumulative glyph advances of an editable unstyled text.
+ * <p>
+ * Unlike {@link TextAdvances}, the index is updated in place after an edit: only the inserted text is measured,
+ * the advances before the edit are kept and the ones after it are shifted.
+ * Widths of ranges are constant time, and finding how much of the text fits in a given width is a binary search.
+ * The measurements are the same as {@link GlyphAdvanceCache}'s, the text is measured again if its glyph advances change.
+ * <p>
+ * Texts containing formatting codes are measured by the font instead.
+ *
+ * @author LambdAurora
+ * @version 6.2.0
+ * @since 6.2.0
+ */
+public final class TextAdvanceIndex {
+	private String text = "";
+	/**
+	 * The X offset of each column, or {@code null} if the text contains formatting codes and is measured by the font.
+	 * Columns within a surrogate pair share the offset of the pair.
+	 */
+	private float[] offsets = new float[1];
+	private int glyphGeneration = GlyphAdvanceCache.getGeneration();
+
+	/**
+	 * {@return the indexed text}
+	 */
+	public String getText() {
+		return this.text;
+	}
+
+	/**
+	 * Measures the whole given text.
+	 *
+	 * @param text the text
+	 */
+	public void setText(String text) {
+		this.text = text;
+		this.glyphGeneration = GlyphAdvanceCache.getGeneration();
+
+		if (text.indexOf(GlyphAdvanceCache.FORMATTING_CODE_PREFIX) != -1) {
+			this.offsets = null;
+			return;
+		}
+
+		this.offsets = new float[text.length() + 1];
+		this.measure(0, text.length());
+	}
+
+	/**
+	 * Updates the index after an edit of the text.
+	 *
+	 * @param text the text, after the edit
+	 * @param offset the offset of the edit
+	 * @param removedLength the length of the text removed by the edit
+	 * @param insertedLength the length of the text inserted by the edit
+	 */
+	public void update(String text, int offset, int removedLength, int insertedLength) {
+		int insertedEnd = offset + insertedLength;
+		if (this.offsets == null || this.glyphGeneration != GlyphAdvanceCache.getGeneration()
+				|| indexOfFormattingCode(text, offset, insertedEnd) != -1) {
+			this.setText(text);
+			return;
+		}
+
+		var oldOffsets = this.offsets;
+		this.text = text;
+		this.offsets = new float[text.length() + 1];
+
+		// The characters around the edit are measured again as the edit may pair or unpair surrogates.
+		int measureStart = Math.max(0, offset - 1);
+		if (measureStart > 0 && Character.isLowSurrogate(text.charAt(measureStart)) && Character.isHighSurrogate(text.charAt(measureStart - 1)))
+			measureStart--;
+		System.arraycopy(oldOffsets, 0, this.offsets, 0, measureStart + 1);
+
+		int measureEnd = this.measure(measureStart, Math.min(text.length(), insertedEnd + 1));
+
+		// The advances after the edit are the same, shifted by the width difference.
+		int shift = removedLength - insertedLength;
+		float delta = this.offsets[measureEnd] - oldOffsets[measureEnd + shift];
+		for (int column = measureEnd + 1; column <= text.length(); column++)
+			this.offsets[column] = oldOffsets[column + shift] + delta;
+	}
+
+	/**
+	 * Measures a range of the text, starting from the known offset of its start.
+	 *
+	 * @param start the start of the range, which must be at a code point boundary
+	 * @param end the end of the range
+	 * @return the column at which the measuring stopped, which is after {@code end} if it splits a surrogate pair
+	 */
+	private int measure(int start, int end) {
+		float x = this.offsets[start];
+		int column = start;
+		while (column < end) {
+			int codePoint = this.text.codePointAt(column);
+			int charCount = Character.charCount(codePoint);
+			for (int i = 0; i < charCount; i++)
+				this.offsets[column + i] = x;
+			x += GlyphAdvanceCache.getAdvance(codePoint);
+			column += charCount;
+		}
+		this.offsets[column] = x;
+		return column;
+	}
+
+	private void ensureMeasured() {
+		if (this.offsets != null && this.glyphGeneration != GlyphAdvanceCache.getGeneration())
+			this.setText(this.text);
+	}
+
+	/**
+	 * Returns the width of a range of the text, as {@link GlyphAdvanceCache#width(CharSequence, int, int)} would.
+	 *
+	 * @param start the start of the range, inclusive
+	 * @param end the end of the range, exclusive
+	 * @return the width of the range of text
+	 */
+	public int getWidth(int start, int end) {
+		this.ensureMeasured();
+		if (this.offsets == null)
+			return GlyphAdvanceCache.width(this.text, start, end);
+		return MathHelper.ceil(this.offsets[end] - this.offsets[start]);
+	}
+
+	/**
+	 * Returns the end index of the longest head of the text from the given start which fits in the given width,
+	 * as {@link GlyphAdvanceCache#headEndAtWidth(CharSequence, int, int, int)} would.
+	 *
+	 * @param start the start of the head
+	 * @param maxWidth the maximum width
+	 * @return the end index of the head which fits, between {@code start} and the length of the text
+	 */
+	public int headEndAtWidth(int start, int maxWidth) {
+		this.ensureMeasured();
+		if (this.offsets == null)
+			return GlyphAdvanceCache.headEndAtWidth(this.text, start, this.text.length(), maxWidth);
+
+		float limit = this.offsets[start] + maxWidth;
+		int low = start;
+		int high = this.text.length();
+		// Finds the last column whose offset fits.
+		while (low < high) {
+			int middle = (low + high + 1) >>> 1;
+			if (this.offsets[middle] <= limit)
+				low = middle;
+			else
+				high = middle - 1;
+		}
+
+		if (low > start && low < this.text.length()
+				&& Character.isLowSurrogate(this.text.charAt(low)) && Character.isHighSurrogate(this.text.charAt(low - 1)))
+			low--;
+		return low;
+	}
+
+	/**
+	 * Returns the start index of the longest tail of the text up to the given end which fits in the given width,
+	 * as {@link GlyphAdvanceCache#tailStartAtWidth(CharSequence, int, int, int)} would.
+	 *
+	 * @param end the end of the tail
+	 * @param maxWidth the maximum width
+	 * @return the start index of the tail which fits, between {@code 0} and {@code end}
+	 */
+	public int tailStartAtWidth(int end, int maxWidth) {
+		this.ensureMeasured();
+		if (this.offsets == null)
+			return GlyphAdvanceCache.tailStartAtWidth(this.text, 0, end, maxWidth);
+
+		float limit = this.offsets[end] - maxWidth;
+		int low = 0;
+		int high = end;
+		// Finds the first column whose offset fits, the columns within a surrogate pair share the offset of its start.
+		while (low < high) {
+			int middle = (low + high) >>> 1;
+			if (this.offsets[middle] >= limit)
+				high = middle;
+			else
+				low = middle + 1;
+		}
+		return low;
+	}
+
+	private static int indexOfFormattingCode(String text, int start, int end) {
+		for (int i = start; i < end; i++) {
+			if (text.charAt(i) == GlyphAdvanceCache.FORMATTING_CODE_PREFIX)
+				return i;
+		}
+		return -1;
+	}
+}
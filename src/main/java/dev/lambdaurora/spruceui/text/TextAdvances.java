@@ -0,0 +1,120 @@
+/*
+ * Copyright © 2024 LambdAurora <email@lambdaurora.dev>
+ *
+ * This file is part of SpruceUI.
+ *
+ * Licensed under the MIT license. For more information,
+ * see the LICENSE file.
+ */
+
+package dev.lambdaurora.spruceui.text;
+
+import net.minecraft.util.math.MathHelper;
+
+/**
+ * Represents the cumulative glyph advances of an unstyled text, measured once.
+ * <p>
+ * Getting the X offset of a column is constant time, and finding the column at a given X offset,
+ * such as when hit-testing the mouse, is a binary search instead of measuring the text again.
+ * The measurements are the same as {@link GlyphAdvanceCache}'s, and are only valid for the glyph advance cache generation
+ * they were made with.
+ *
+ * @author LambdAurora
+ * @version 6.2.0
+ * @since 6.2.0
+ */
+public final class TextAdvances {
+	private final String text;
+	/**
+	 * The X offset of each column, or {@code null} if the text contains formatting codes and is measured by the font.
+	 */
+	private final float[] offsets;
+	private final int width;
+
+	private TextAdvances(String text, float[] offsets, int width) {
+		this.text = text;
+		this.offsets = offsets;
+		this.width = width;
+	}
+
+	/**
+	 * Measures the given text.
+	 *
+	 * @param text the text
+	 * @return the advances of the text
+	 */
+	public static TextAdvances of(String text) {
+		if (text.indexOf(GlyphAdvanceCache.FORMATTING_CODE_PREFIX) != -1)
+			return new TextAdvances(text, null, GlyphAdvanceCache.width(text));
+
+		var offsets = new float[text.length() + 1];
+		float x = 0.f;
+		for (int i = 0; i < text.length(); ) {
+			int codePoint = text.codePointAt(i);
+			int charCount = Character.charCount(codePoint);
+			// Columns within a surrogate pair share the offset of the pair.
+			for (int j = 0; j < charCount; j++)
+				offsets[i + j] = x;
+			x += GlyphAdvanceCache.getAdvance(codePoint);
+			i += charCount;
+		}
+		offsets[text.length()] = x;
+
+		return new TextAdvances(text, offsets, MathHelper.ceil(x));
+	}
+
+	/**
+	 * {@return the measured text}
+	 */
+	public String getText() {
+		return this.text;
+	}
+
+	/**
+	 * {@return the width of the text}
+	 */
+	public int getWidth() {
+		return this.width;
+	}
+
+	/**
+	 * Returns the X offset of the given column, as {@link GlyphAdvanceCache#width(CharSequence, int, int)} would.
+	 *
+	 * @param column the column, clamped to the text
+	 * @return the X offset of the column
+	 */
+	public int getX(int column) {
+		column = MathHelper.clamp(column, 0, this.text.length());
+		if (this.offsets == null)
+			return GlyphAdvanceCache.width(this.text, 0, column);
+		return MathHelper.ceil(this.offsets[column]);
+	}
+
+	/**
+	 * Finds the column at the given X offset, as {@link GlyphAdvanceCache#headEndAtWidth(CharSequence, int, int, int)} would:
+	 * this is the end of the longest head of the text which fits in the given width.
+	 *
+	 * @param x the X offset
+	 * @return the column
+	 */
+	public int getColumnAt(int x) {
+		if (this.offsets == null)
+			return GlyphAdvanceCache.headEndAtWidth(this.text, 0, this.text.length(), x);
+
+		int low = 0;
+		int high = this.text.length();
+		// Finds the last column whose offset fits, the first column is returned if none fits.
+		while (low < high) {
+			int middle = (low + high + 1) >>> 1;
+			if (this.offsets[middle] <= x)
+				low = middle;
+			else
+				high = middle - 1;
+		}
+
+		if (low > 0 && low < this.text.length()
+				&& Character.isLowSurrogate(this.text.charAt(low)) && Character.isHighSurrogate(this.text.charAt(low - 1)))
+			low--;
+		return low;
+	}
+}
@@ -0,0 +1,512 @@
+/*
+ * Copyright © 2024 LambdAurora <email@lambdaurora.dev>
+ *
+ * This file is part of SpruceUI.
+ *
+ * Licensed under the MIT license. For more information,
+ * see the LICENSE file.
+ */
+
+package dev.lambdaurora.spruceui.text;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Arrays;
+
+/**
+ * Represents an editable text document backed by a piece table.
+ * <p>
+ * The document never copies its whole content on edit: inserted text is appended to an append-only buffer,
+ * and the document is described as a sequence of pieces referencing ranges of that buffer.
+ * Edits only split or trim the pieces around the edited range, and consecutive typing extends the last piece in place.
+ * <p>
+ * As the buffers are never modified where pieces reference them, an immutable {@link Snapshot} of the document
+ * only copies the piece list, and can be read from another thread while the document keeps being edited.
+ *
+ * @author LambdAurora
+ * @version 6.2.0
+ * @since 6.2.0
+ */
+public final class TextDocument implements CharSequence {
+	private static final int INITIAL_ADD_BUFFER_CAPACITY = 256;
+
+	private char[] addBuffer = new char[INITIAL_ADD_BUFFER_CAPACITY];
+	private int addLength = 0;
+	private Piece[] pieces = new Piece[16];
+	private int pieceCount = 0;
+	private int length = 0;
+	private int version = 0;
+
+	// Cache of the last piece lookup, edits tend to happen close to each other.
+	private int lookupPiece = 0;
+	private int lookupStart = 0;
+
+	private String cachedText = "";
+	private int cachedTextVersion = 0;
+	private @Nullable Snapshot snapshot;
+
+	public TextDocument() {
+	}
+
+	public TextDocument(CharSequence text) {
+		this.setText(text);
+	}
+
+	/**
+	 * {@return the version of this document, incremented on every modification}
+	 */
+	public int getVersion() {
+		return this.version;
+	}
+
+	@Override
+	public int length() {
+		return this.length;
+	}
+
+	@Override
+	public boolean isEmpty() {
+		return this.length == 0;
+	}
+
+	@Override
+	public char charAt(int index) {
+		if (index < 0 || index >= this.length)
+			throw new IndexOutOfBoundsException("index " + index + ", length " + this.length);
+
+		int piece = this.findPiece(index);
+		var p = this.pieces[piece];
+		return p.buffer[p.start + index - this.lookupStart];
+	}
+
+	/**
+	 * Copies characters from this document into the destination character array.
+	 *
+	 * @param start the start offset in the document, inclusive
+	 * @param end the end offset in the document, exclusive
+	 * @param dst the destination array
+	 * @param dstStart the start offset in the destination array
+	 */
+	public void getChars(int start, int end, char[] dst, int dstStart) {
+		this.checkRange(start, end);
+		if (start == end)
+			return;
+
+		int piece = this.findPiece(start);
+		int pieceStart = this.lookupStart;
+		int offset = start;
+
+		while (offset < end) {
+			var p = this.pieces[piece];
+			int from = offset - pieceStart;
+			int count = Math.min(p.length - from, end - offset);
+			System.arraycopy(p.buffer, p.start + from, dst, dstStart, count);
+			dstStart += count;
+			offset += count;
+			pieceStart += p.length;
+			piece++;
+		}
+	}
+
+	/**
+	 * Appends a range of this document to the given string builder.
+	 *
+	 * @param builder the string builder
+	 * @param start the start offset in the document, inclusive
+	 * @param end the end offset in the document, exclusive
+	 */
+	public void appendTo(StringBuilder builder, int start, int end) {
+		this.checkRange(start, end);
+		if (start == end)
+			return;
+
+		int piece = this.findPiece(start);
+		int pieceStart = this.lookupStart;
+		int offset = start;
+
+		while (offset < end) {
+			var p = this.pieces[piece];
+			int from = offset - pieceStart;
+			int count = Math.min(p.length - from, end - offset);
+			builder.append(p.buffer, p.start + from, count);
+			offset += count;
+			pieceStart += p.length;
+			piece++;
+		}
+	}
+
+	@Override
+	public @NotNull String subSequence(int start, int end) {
+		this.checkRange(start, end);
+		if (start == 0 && end == this.length)
+			return this.toString();
+
+		var chars = new char[end - start];
+		this.getChars(start, end, chars, 0);
+		return new String(chars);
+	}
+
+	/**
+	 * Replaces the whole content of this document.
+	 *
+	 * @param text the new text
+	 */
+	public void setText(CharSequence text) {
+		this.addBuffer = new char[Math.max(INITIAL_ADD_BUFFER_CAPACITY, text.length())];
+		this.addLength = 0;
+		Arrays.fill(this.pieces, 0, this.pieceCount, null);
+		this.pieceCount = 0;
+		this.length = 0;
+		this.lookupPiece = this.lookupStart = 0;
+
+		if (!text.isEmpty()) {
+			this.insertPiece(0, new Piece(this.append(text), 0, text.length()));
+			this.length = text.length();
+		}
+
+		this.version++;
+		if (text instanceof String string) {
+			this.cachedText = string;
+			this.cachedTextVersion = this.version;
+		}
+	}
+
+	/**
+	 * Clears this document.
+	 */
+	public void clear() {
+		this.setText("");
+	}
+
+	/**
+	 * Inserts text at the given offset.
+	 *
+	 * @param offset the offset to insert at
+	 * @param text the text to insert
+	 */
+	public void insert(int offset, CharSequence text) {
+		if (offset < 0 || offset > this.length)
+			throw new IndexOutOfBoundsException("offset " + offset + ", length " + this.length);
+		if (text.isEmpty())
+			return;
+
+		int addStart = this.addLength;
+		var buffer = this.append(text);
+
+		if (offset == this.length) {
+			var last = this.pieceCount == 0 ? null : this.pieces[this.pieceCount - 1];
+			if (last != null && last.buffer == buffer && last.start + last.length == addStart) {
+				this.pieces[this.pieceCount - 1] = new Piece(buffer, last.start, last.length + text.length());
+			} else {
+				this.lookupStart = this.length;
+				this.insertPiece(this.pieceCount, new Piece(buffer, addStart, text.length()));
+				this.lookupPiece = this.pieceCount - 1;
+			}
+		} else {
+			int piece = this.findPiece(offset);
+			var p = this.pieces[piece];
+			int split = offset - this.lookupStart;
+			var inserted = new Piece(buffer, addStart, text.length());
+
+			if (split == 0) {
+				var previous = piece == 0 ? null : this.pieces[piece - 1];
+				if (previous != null && previous.buffer == buffer && previous.start + previous.length == addStart) {
+					this.pieces[piece - 1] = new Piece(buffer, previous.start, previous.length + text.length());
+					this.lookupStart += text.length();
+				} else {
+					this.insertPiece(piece, inserted);
+					this.lookupPiece = piece + 1;
+					this.lookupStart += text.length();
+				}
+			} else {
+				this.pieces[piece] = new Piece(p.buffer, p.start, split);
+				this.insertPiece(piece + 1, inserted);
+				this.insertPiece(piece + 2, new Piece(p.buffer, p.start + split, p.length - split));
+			}
+		}
+
+		this.length += text.length();
+		this.version++;
+	}
+
+	/**
+	 * Deletes a range of text.
+	 *
+	 * @param start the start offset, inclusive
+	 * @param end the end offset, exclusive
+	 */
+	public void delete(int start, int end) {
+		this.checkRange(start, end);
+		if (start == end)
+			return;
+
+		int piece = this.findPiece(start);
+		int pieceStart = this.lookupStart;
+		var first = this.pieces[piece];
+		int from = start - pieceStart;
+
+		if (end - pieceStart < first.length) {
+			// The deletion is contained in a single piece.
+			if (from == 0) {
+				this.pieces[piece] = new Piece(first.buffer, first.start + (end - start), first.length - (end - start));
+			} else {
+				this.pieces[piece] = new Piece(first.buffer, first.start, from);
+				this.insertPiece(piece + 1, new Piece(first.buffer, first.start + end - pieceStart, first.length - (end - pieceStart)));
+			}
+		} else {
+			// Find the first piece which ends after the deleted range.
+			int removeTo = piece + 1;
+			int offset = pieceStart + first.length;
+			while (removeTo < this.pieceCount && offset + this.pieces[removeTo].length <= end) {
+				offset += this.pieces[removeTo].length;
+				removeTo++;
+			}
+
+			if (removeTo < this.pieceCount && offset < end) {
+				var last = this.pieces[removeTo];
+				int trim = end - offset;
+				this.pieces[removeTo] = new Piece(last.buffer, last.start + trim, last.length - trim);
+			}
+
+			int removeFrom = piece;
+			if (from != 0) {
+				this.pieces[piece] = new Piece(first.buffer, first.start, from);
+				removeFrom++;
+			}
+
+			this.removePieces(removeFrom, removeTo);
+		}
+
+		this.length -= end - start;
+		this.version++;
+		// Whichever piece now sits at the looked up index still starts at the same offset.
+		this.lookupPiece = piece;
+		this.lookupStart = pieceStart;
+	}
+
+	/**
+	 * Replaces a range of text.
+	 *
+	 * @param start the start offset, inclusive
+	 * @param end the end offset, exclusive
+	 * @param text the replacement text
+	 */
+	public void replace(int start, int end, CharSequence text) {
+		this.delete(start, end);
+		this.insert(start, text);
+	}
+
+	@Override
+	public @NotNull String toString() {
+		if (this.cachedTextVersion != this.version) {
+			var chars = new char[this.length];
+			this.getChars(0, this.length, chars, 0);
+			this.cachedText = new String(chars);
+			this.cachedTextVersion = this.version;
+		}
+
+		return this.cachedText;
+	}
+
+	/**
+	 * Takes an immutable snapshot of the current content of this document.
+	 * <p>
+	 * This only copies the piece list, the snapshot of a given version is taken once.
+	 *
+	 * @return the snapshot
+	 */
+	public Snapshot snapshot() {
+		if (this.snapshot == null || this.snapshot.version != this.version) {
+			var starts = new int[this.pieceCount];
+			int start = 0;
+			for (int i = 0; i < this.pieceCount; i++) {
+				starts[i] = start;
+				start += this.pieces[i].length;
+			}
+			this.snapshot = new Snapshot(Arrays.copyOf(this.pieces, this.pieceCount), starts, this.length, this.version);
+		}
+
+		return this.snapshot;
+	}
+
+	/**
+	 * Finds the piece which contains the given offset, and stores its start in {@link #lookupStart}.
+	 *
+	 * @param offset the offset, must be less than the document length
+	 * @return the index of the piece
+	 */
+	private int findPiece(int offset) {
+		int piece = this.lookupPiece;
+		int pieceStart = this.lookupStart;
+		if (piece >= this.pieceCount) {
+			piece = 0;
+			pieceStart = 0;
+		}
+
+		while (offset < pieceStart) {
+			piece--;
+			pieceStart -= this.pieces[piece].length;
+		}
+
+		while (offset >= pieceStart + this.pieces[piece].length) {
+			pieceStart += this.pieces[piece].length;
+			piece++;
+		}
+
+		this.lookupPiece = piece;
+		this.lookupStart = pieceStart;
+		return piece;
+	}
+
+	/**
+	 * Appends the given text to the add buffer.
+	 *
+	 * @param text the text to append
+	 * @return the add buffer the text got appended to
+	 */
+	private char[] append(CharSequence text) {
+		int required = this.addLength + text.length();
+		if (required > this.addBuffer.length) {
+			// The old buffer is left untouched as pieces may still reference it.
+			this.addBuffer = Arrays.copyOf(this.addBuffer, Math.max(required, this.addBuffer.length * 2));
+		}
+
+		if (text instanceof String string) {
+			string.getChars(0, string.length(), this.addBuffer, this.addLength);
+		} else if (text instanceof StringBuilder builder) {
+			builder.getChars(0, builder.length(), this.addBuffer, this.addLength);
+		} else {
+			for (int i = 0; i < text.length(); i++) {
+				this.addBuffer[this.addLength + i] = text.charAt(i);
+			}
+		}
+
+		this.addLength = required;
+		return this.addBuffer;
+	}
+
+	private void insertPiece(int index, Piece piece) {
+		if (this.pieceCount == this.pieces.length) {
+			this.pieces = Arrays.copyOf(this.pieces, this.pieces.length * 2);
+		}
+
+		System.arraycopy(this.pieces, index, this.pieces, index + 1, this.pieceCount - index);
+		this.pieces[index] = piece;
+		this.pieceCount++;
+	}
+
+	private void removePieces(int from, int to) {
+		if (from == to)
+			return;
+
+		System.arraycopy(this.pieces, to, this.pieces, from, this.pieceCount - to);
+		Arrays.fill(this.pieces, this.pieceCount - (to - from), this.pieceCount, null);
+		this.pieceCount -= to - from;
+	}
+
+	private void checkRange(int start, int end) {
+		if (start < 0 || end > this.length || start > end)
+			throw new IndexOutOfBoundsException("range [" + start + ", " + end + "), length " + this.length);
+	}
+
+	/**
+	 * Represents an immutable snapshot of a document, which is safe to read from any thread.
+	 *
+	 * @version 6.2.0
+	 * @since 6.2.0
+	 */
+	public static final class Snapshot implements CharSequence {
+		private final Piece[] pieces;
+		/**
+		 * The start offset of each piece.
+		 */
+		private final int[] starts;
+		private final int length;
+		private final int version;
+		private volatile @Nullable String text;
+
+		private Snapshot(Piece[] pieces, int[] starts, int length, int version) {
+			this.pieces = pieces;
+			this.starts = starts;
+			this.length = length;
+			this.version = version;
+		}
+
+		/**
+		 * {@return the version of the document this snapshot got taken at}
+		 *
+		 * @see TextDocument#getVersion()
+		 */
+		public int getVersion() {
+			return this.version;
+		}
+
+		@Override
+		public int length() {
+			return this.length;
+		}
+
+		@Override
+		public char charAt(int index) {
+			if (index < 0 || index >= this.length)
+				throw new IndexOutOfBoundsException("index " + index + ", length " + this.length);
+
+			int piece = this.findPiece(index);
+			var p = this.pieces[piece];
+			return p.buffer[p.start + index - this.starts[piece]];
+		}
+
+		@Override
+		public @NotNull String subSequence(int start, int end) {
+			if (start < 0 || end > this.length || start > end)
+				throw new IndexOutOfBoundsException("range [" + start + ", " + end + "), length " + this.length);
+			if (start == end)
+				return "";
+
+			var chars = new char[end - start];
+			int piece = this.findPiece(start);
+			int offset = start;
+			while (offset < end) {
+				var p = this.pieces[piece];
+				int from = offset - this.starts[piece];
+				int count = Math.min(p.length - from, end - offset);
+				System.arraycopy(p.buffer, p.start + from, chars, offset - start, count);
+				offset += count;
+				piece++;
+			}
+			return new String(chars);
+		}
+
+		@Override
+		public @NotNull String toString() {
+			var text = this.text;
+			if (text == null)
+				this.text = text = this.subSequence(0, this.length);
+			return text;
+		}
+
+		private int findPiece(int offset) {
+			int low = 0;
+			int high = this.starts.length - 1;
+			while (low < high) {
+				int middle = (low + high + 1) >>> 1;
+				if (this.starts[middle] <= offset)
+					low = middle;
+				else
+					high = middle - 1;
+			}
+			return low;
+		}
+	}
+
+	/**
+	 * Represents a piece of the document, which references a range of a buffer.
+	 *
+	 * @param buffer the buffer this piece references
+	 * @param start the start of the piece in the buffer
+	 * @param length the length of the piece
+	 */
+	private record Piece(char[] buffer, int start, int length) {
+	}
+}
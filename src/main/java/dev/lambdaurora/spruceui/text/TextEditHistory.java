@@ -0,0 +1,327 @@
+/*
+ * Copyright © 2024 LambdAurora <email@lambdaurora.dev>
+ *
+ * This file is part of SpruceUI.
+ *
+ * Licensed under the MIT license. For more information,
+ * see the LICENSE file.
+ */
+
+package dev.lambdaurora.spruceui.text;
+
+import net.minecraft.Util;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.List;
+
+/**
+ * Represents the undo and redo history of a text input.
+ * <p>
+ * The history records edits as the replaced ranges and the text before and after the edit instead of snapshots of the whole text,
+ * an edit made at several cursors at once records each of its ranges.
+ * Consecutive typing, backspacing or forward deletion are coalesced into a single edit, also when made at several cursors,
+ * and the oldest edits are discarded once the history exceeds its maximum size in bytes.
+ *
+ * @author LambdAurora
+ * @version 6.2.0
+ * @since 6.2.0
+ */
+public final class TextEditHistory {
+	/**
+	 * The default maximum size of a history, in bytes.
+	 */
+	public static final long DEFAULT_MAX_SIZE = 1024 * 1024;
+	/**
+	 * The delay after which consecutive edits are no longer coalesced, in milliseconds.
+	 */
+	private static final long COALESCE_DELAY = 1000;
+	/**
+	 * The estimated size of an edit without its ranges, in bytes.
+	 */
+	private static final long EDIT_OVERHEAD = 64;
+	/**
+	 * The estimated size of a range of an edit without its text, in bytes.
+	 */
+	private static final long RANGE_OVERHEAD = 48;
+
+	private final Deque<Entry> undoStack = new ArrayDeque<>();
+	private final Deque<Entry> redoStack = new ArrayDeque<>();
+	private final long maxSize;
+	private long size = 0;
+	private boolean coalescing = false;
+	private long lastEditTime = 0;
+
+	public TextEditHistory() {
+		this(DEFAULT_MAX_SIZE);
+	}
+
+	/**
+	 * Creates a new text edit history.
+	 *
+	 * @param maxSize the maximum size of the history, in bytes
+	 */
+	public TextEditHistory(long maxSize) {
+		this.maxSize = maxSize;
+	}
+
+	/**
+	 * {@return the maximum size of this history, in bytes}
+	 */
+	public long getMaxSize() {
+		return this.maxSize;
+	}
+
+	/**
+	 * {@return the estimated size of this history, in bytes}
+	 */
+	public long getSize() {
+		return this.size;
+	}
+
+	public boolean canUndo() {
+		return !this.undoStack.isEmpty();
+	}
+
+	public boolean canRedo() {
+		return !this.redoStack.isEmpty();
+	}
+
+	/**
+	 * Records an edit, which clears the redo history.
+	 *
+	 * @param offset the offset of the edit
+	 * @param removed the removed text
+	 * @param inserted the inserted text
+	 */
+	public void record(int offset, CharSequence removed, CharSequence inserted) {
+		this.record(new int[] {offset}, new CharSequence[] {removed}, new CharSequence[] {inserted});
+	}
+
+	/**
+	 * Records an edit of several ranges made at once, such as typing at several cursors, which clears the redo history.
+	 * <p>
+	 * The ranges are sorted and do not overlap, their offsets are in the text before the edit.
+	 *
+	 * @param offsets the offset of each range
+	 * @param removed the text removed from each range
+	 * @param inserted the text inserted in each range
+	 */
+	public void record(int[] offsets, CharSequence[] removed, CharSequence[] inserted) {
+		long textLength = 0;
+		for (int i = 0; i < offsets.length; i++)
+			textLength += removed[i].length() + inserted[i].length();
+		if (textLength == 0)
+			return;
+
+		this.clearRedo();
+
+		long now = Util.getMillis();
+		var kind = EditKind.of(removed, inserted);
+		var last = this.undoStack.peek();
+
+		if (this.coalescing && last != null && now - this.lastEditTime <= COALESCE_DELAY && last.coalesce(kind, offsets, removed, inserted)) {
+			this.size += 2L * textLength;
+		} else {
+			var entry = new Entry(offsets, removed, inserted, kind);
+			this.undoStack.push(entry);
+			this.size += entry.size();
+		}
+
+		this.coalescing = kind != EditKind.OTHER;
+		this.lastEditTime = now;
+		this.trim();
+	}
+
+	/**
+	 * Prevents the next recorded edit from being coalesced with the previous one.
+	 * This is meant to be called whenever the cursor moves.
+	 */
+	public void breakCoalescing() {
+		this.coalescing = false;
+	}
+
+	/**
+	 * Moves the last edit to the redo history.
+	 * <p>
+	 * To revert the edit, for each of its ranges from the last one to the first one,
+	 * the range starting at the range offset and of the length of the inserted text has to be replaced with the removed text.
+	 * The offsets are in the current text, going backwards keeps the offsets of the remaining ranges valid.
+	 *
+	 * @return the ranges of the edit to revert sorted by offset, or {@code null} if there is nothing to undo
+	 */
+	public @Nullable List<Edit> undo() {
+		var entry = this.undoStack.poll();
+		if (entry == null)
+			return null;
+
+		this.redoStack.push(entry);
+		this.coalescing = false;
+		return entry.toEdits(true);
+	}
+
+	/**
+	 * Moves the last undone edit back to the undo history.
+	 * <p>
+	 * To re-apply the edit, for each of its ranges from the last one to the first one,
+	 * the range starting at the range offset and of the length of the removed text has to be replaced with the inserted text.
+	 * The offsets are in the current text, going backwards keeps the offsets of the remaining ranges valid.
+	 *
+	 * @return the ranges of the edit to re-apply sorted by offset, or {@code null} if there is nothing to redo
+	 */
+	public @Nullable List<Edit> redo() {
+		var entry = this.redoStack.poll();
+		if (entry == null)
+			return null;
+
+		this.undoStack.push(entry);
+		this.coalescing = false;
+		return entry.toEdits(false);
+	}
+
+	/**
+	 * Clears this history.
+	 */
+	public void clear() {
+		this.undoStack.clear();
+		this.redoStack.clear();
+		this.size = 0;
+		this.coalescing = false;
+	}
+
+	private void clearRedo() {
+		for (var entry : this.redoStack)
+			this.size -= entry.size();
+		this.redoStack.clear();
+	}
+
+	private void trim() {
+		while (this.size > this.maxSize && !this.undoStack.isEmpty()) {
+			this.size -= this.undoStack.removeLast().size();
+		}
+
+		if (this.undoStack.isEmpty())
+			this.coalescing = false;
+	}
+
+	/**
+	 * Represents a range of an edit.
+	 *
+	 * @param offset the offset of the range
+	 * @param removed the text removed from the range
+	 * @param inserted the text inserted in the range
+	 */
+	public record Edit(int offset, String removed, String inserted) {
+	}
+
+	private enum EditKind {
+		TYPING,
+		REMOVAL,
+		OTHER;
+
+		static EditKind of(CharSequence removed, CharSequence inserted) {
+			if (inserted.length() == 1 && inserted.charAt(0) != '\n')
+				return TYPING;
+			else if (inserted.isEmpty() && removed.length() == 1)
+				return REMOVAL;
+			return OTHER;
+		}
+
+		/**
+		 * {@return the kind shared by every range of an edit, or {@link #OTHER} if the ranges differ}
+		 */
+		static EditKind of(CharSequence[] removed, CharSequence[] inserted) {
+			var kind = of(removed[0], inserted[0]);
+			for (int i = 1; i < removed.length && kind != OTHER; i++) {
+				if (of(removed[i], inserted[i]) != kind)
+					return OTHER;
+			}
+			return kind;
+		}
+	}
+
+	private static final class Entry {
+		/**
+		 * The offset of each range in the text before the edit.
+		 */
+		private final int[] offsets;
+		private final StringBuilder[] removed;
+		private final StringBuilder[] inserted;
+		private final EditKind kind;
+
+		private Entry(int[] offsets, CharSequence[] removed, CharSequence[] inserted, EditKind kind) {
+			this.offsets = offsets.clone();
+			this.removed = new StringBuilder[offsets.length];
+			this.inserted = new StringBuilder[offsets.length];
+			for (int i = 0; i < offsets.length; i++) {
+				this.removed[i] = new StringBuilder(removed[i]);
+				this.inserted[i] = new StringBuilder(inserted[i]);
+			}
+			this.kind = kind;
+		}
+
+		/**
+		 * Tries to merge the given edit into this entry, range by range.
+		 *
+		 * @return {@code true} if the edit has been merged, or {@code false} otherwise
+		 */
+		private boolean coalesce(EditKind kind, int[] offsets, CharSequence[] removed, CharSequence[] inserted) {
+			if (kind != this.kind || kind == EditKind.OTHER || offsets.length != this.offsets.length)
+				return false;
+
+			// The new offsets are in the text after this entry, the ranges before each range of this entry shift it.
+			int shift = 0;
+			for (int i = 0; i < offsets.length; i++) {
+				int start = this.offsets[i] + shift;
+				if (kind == EditKind.TYPING) {
+					if (!removed[i].isEmpty() || offsets[i] != start + this.inserted[i].length())
+						return false;
+				} else if (offsets[i] + removed[i].length() != start && offsets[i] != start) {
+					return false;
+				}
+				shift += this.inserted[i].length() - this.removed[i].length();
+			}
+
+			shift = 0;
+			for (int i = 0; i < offsets.length; i++) {
+				int start = this.offsets[i] + shift;
+				shift += this.inserted[i].length() - this.removed[i].length();
+				if (kind == EditKind.TYPING) {
+					this.inserted[i].append(inserted[i]);
+				} else if (offsets[i] + removed[i].length() == start) {
+					// Backspace.
+					this.removed[i].insert(0, removed[i]);
+					this.offsets[i] -= removed[i].length();
+				} else {
+					// Forward deletion.
+					this.removed[i].append(removed[i]);
+				}
+			}
+			return true;
+		}
+
+		private long size() {
+			long size = EDIT_OVERHEAD;
+			for (int i = 0; i < this.offsets.length; i++)
+				size += RANGE_OVERHEAD + 2L * (this.removed[i].length() + this.inserted[i].length());
+			return size;
+		}
+
+		/**
+		 * Converts this entry to its ranges.
+		 *
+		 * @param applied {@code true} if the offsets have to be in the text after this entry, or {@code false} for the text before
+		 * @return the ranges
+		 */
+		private List<Edit> toEdits(boolean applied) {
+			var edits = new Edit[this.offsets.length];
+			int shift = 0;
+			for (int i = 0; i < this.offsets.length; i++) {
+				edits[i] = new Edit(this.offsets[i] + (applied ? shift : 0), this.removed[i].toString(), this.inserted[i].toString());
+				shift += this.inserted[i].length() - this.removed[i].length();
+			}
+			return List.of(edits);
+		}
+	}
+}
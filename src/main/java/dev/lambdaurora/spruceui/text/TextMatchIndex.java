@@ -0,0 +1,236 @@
+/*
+ * Copyright © 2024 LambdAurora <email@lambdaurora.dev>
+ *
+ * This file is part of SpruceUI.
+ *
+ * Licensed under the MIT license. For more information,
+ * see the LICENSE file.
+ */
+
+package dev.lambdaurora.spruceui.text;
+
+import it.unimi.dsi.fastutil.ints.IntArrayList;
+
+/**
+ * Represents the index of the occurrences of a query in a text.
+ * <p>
+ * The matches are found from left to right and do not overlap.
+ * After an edit, the index is updated by only scanning around the edited range,
+ * the matches after it being shifted, until the scan lines up with the previous matches again.
+ *
+ * @author LambdAurora
+ * @version 6.2.0
+ * @since 6.2.0
+ */
+public final class TextMatchIndex {
+	private final IntArrayList matches = new IntArrayList();
+	private final IntArrayList found = new IntArrayList();
+	private String query = "";
+	private boolean ignoreCase = false;
+
+	/**
+	 * {@return the searched query, empty if there is no search}
+	 */
+	public String getQuery() {
+		return this.query;
+	}
+
+	/**
+	 * {@return {@code true} if the search ignores the case, or {@code false} otherwise}
+	 */
+	public boolean isIgnoreCase() {
+		return this.ignoreCase;
+	}
+
+	/**
+	 * Sets the searched query and indexes its occurrences in the given text.
+	 *
+	 * @param query the query, or an empty string to stop searching
+	 * @param ignoreCase {@code true} if the search ignores the case, or {@code false} otherwise
+	 * @param text the searched text
+	 */
+	public void setQuery(String query, boolean ignoreCase, CharSequence text) {
+		this.query = query;
+		this.ignoreCase = ignoreCase;
+		this.rebuild(text);
+	}
+
+	/**
+	 * Indexes again all the occurrences of the query in the given text.
+	 *
+	 * @param text the searched text
+	 */
+	public void rebuild(CharSequence text) {
+		this.matches.clear();
+		if (this.query.isEmpty())
+			return;
+
+		int position = 0;
+		int match;
+		while ((match = this.find(text, position, text.length())) != -1) {
+			this.matches.add(match);
+			position = match + this.query.length();
+		}
+	}
+
+	/**
+	 * Updates the index after an edit of the text.
+	 *
+	 * @param text the searched text, after the edit
+	 * @param offset the offset of the edit
+	 * @param removedLength the length of the text removed by the edit
+	 * @param insertedLength the length of the text inserted by the edit
+	 */
+	public void update(CharSequence text, int offset, int removedLength, int insertedLength) {
+		if (this.query.isEmpty())
+			return;
+
+		int queryLength = this.query.length();
+		int delta = insertedLength - removedLength;
+
+		// The matches ending before the edit are kept as is, the ones starting after it are shifted.
+		int from = this.firstStartingAtOrAfter(offset - queryLength + 1);
+		int tail = this.firstStartingAtOrAfter(offset + removedLength);
+		for (int i = tail; i < this.matches.size(); i++) {
+			this.matches.set(i, this.matches.getInt(i) + delta);
+		}
+
+		int position = Math.max(offset - queryLength + 1, from == 0 ? 0 : this.matches.getInt(from - 1) + queryLength);
+		// Past this limit, no removed match overlaps the scanned text anymore.
+		int limit = offset + insertedLength + queryLength - 1;
+		int next = tail;
+		this.found.clear();
+
+		while (true) {
+			int match = this.find(text, position, limit);
+			if (match != -1) {
+				this.found.add(match);
+				position = match + queryLength;
+				continue;
+			}
+
+			position = Math.max(position, limit);
+
+			// The scan lines up with the previous matches once none of them spans over the current position.
+			int overlapEnd = -1;
+			while (next < this.matches.size() && this.matches.getInt(next) < position) {
+				int end = this.matches.getInt(next) + queryLength;
+				overlapEnd = end > position ? end : -1;
+				next++;
+			}
+
+			if (overlapEnd == -1)
+				break;
+			limit = overlapEnd;
+		}
+
+		this.matches.removeElements(from, next);
+		this.matches.addElements(from, this.found.elements(), 0, this.found.size());
+	}
+
+	/**
+	 * Removes all the matches, the query is kept.
+	 */
+	public void clear() {
+		this.matches.clear();
+	}
+
+	/**
+	 * {@return the number of matches}
+	 */
+	public int size() {
+		return this.matches.size();
+	}
+
+	public boolean isEmpty() {
+		return this.matches.isEmpty();
+	}
+
+	/**
+	 * Returns the start offset of the given match.
+	 *
+	 * @param index the index of the match
+	 * @return the start offset of the match
+	 */
+	public int getStart(int index) {
+		return this.matches.getInt(index);
+	}
+
+	/**
+	 * Returns the end offset of the given match.
+	 *
+	 * @param index the index of the match
+	 * @return the end offset of the match, exclusive
+	 */
+	public int getEnd(int index) {
+		return this.matches.getInt(index) + this.query.length();
+	}
+
+	/**
+	 * Finds the first match which starts at or after the given offset.
+	 *
+	 * @param offset the offset
+	 * @return the index of the match, or {@link #size()} if there is none
+	 */
+	public int firstStartingAtOrAfter(int offset) {
+		int low = 0;
+		int high = this.matches.size();
+		while (low < high) {
+			int middle = (low + high) >>> 1;
+			if (this.matches.getInt(middle) < offset)
+				low = middle + 1;
+			else
+				high = middle;
+		}
+		return low;
+	}
+
+	/**
+	 * Finds the first match which ends after the given offset.
+	 *
+	 * @param offset the offset
+	 * @return the index of the match, or {@link #size()} if there is none
+	 */
+	public int firstEndingAfter(int offset) {
+		return this.firstStartingAtOrAfter(offset - this.query.length() + 1);
+	}
+
+	/**
+	 * Finds the first occurrence of the query starting in the given range.
+	 *
+	 * @param text the searched text
+	 * @param from the start of the range, inclusive
+	 * @param to the end of the range, exclusive
+	 * @return the start offset of the occurrence, or {@code -1} if there is none
+	 */
+	private int find(CharSequence text, int from, int to) {
+		int queryLength = this.query.length();
+		char first = this.query.charAt(0);
+		int end = Math.min(to, text.length() - queryLength + 1);
+
+		for (int i = Math.max(0, from); i < end; i++) {
+			if (!this.matches(text.charAt(i), first))
+				continue;
+
+			int j = 1;
+			while (j < queryLength && this.matches(text.charAt(i + j), this.query.charAt(j))) {
+				j++;
+			}
+			if (j == queryLength)
+				return i;
+		}
+
+		return -1;
+	}
+
+	private boolean matches(char c, char queryChar) {
+		if (c == queryChar)
+			return true;
+		if (!this.ignoreCase)
+			return false;
+
+		char upper = Character.toUpperCase(c);
+		char queryUpper = Character.toUpperCase(queryChar);
+		return upper == queryUpper || Character.toLowerCase(upper) == Character.toLowerCase(queryUpper);
+	}
+}
@@ -0,0 +1,240 @@
+/*
+ * Copyright © 2024 LambdAurora <email@lambdaurora.dev>
+ *
+ * This file is part of SpruceUI.
+ *
+ * Licensed under the MIT license. For more information,
+ * see the LICENSE file.
+ */
+
+package dev.lambdaurora.spruceui.util;
+
+import java.util.Arrays;
+
+/**
+ * Represents a list of integers backed by a Fenwick tree, also known as binary indexed tree.
+ * <p>
+ * Reading or updating a value, computing a prefix sum and finding the index at which the prefix sums reach a given value
+ * are all done in {@code O(log n)}.
+ * Inserting or removing values only rebuilds the tree after the modified index, in linear time.
+ * <p>
+ * The values are expected to be non-negative for {@link #findIndex(int)} to be meaningful.
+ *
+ * @author LambdAurora
+ * @version 6.2.0
+ * @since 6.2.0
+ */
+public final class IntFenwickTree {
+	private int[] values;
+	/**
+	 * The tree, 1-indexed: the node {@code i} holds the sum of the values in {@code [i - lowbit(i), i)}.
+	 */
+	private int[] tree;
+	private int size = 0;
+
+	public IntFenwickTree() {
+		this(16);
+	}
+
+	public IntFenwickTree(int capacity) {
+		this.values = new int[Math.max(1, capacity)];
+		this.tree = new int[this.values.length + 1];
+	}
+
+	/**
+	 * {@return the number of values in this tree}
+	 */
+	public int size() {
+		return this.size;
+	}
+
+	public boolean isEmpty() {
+		return this.size == 0;
+	}
+
+	/**
+	 * Returns the value at the given index.
+	 *
+	 * @param index the index
+	 * @return the value
+	 */
+	public int get(int index) {
+		this.checkIndex(index);
+		return this.values[index];
+	}
+
+	/**
+	 * Sets the value at the given index.
+	 *
+	 * @param index the index
+	 * @param value the new value
+	 */
+	public void set(int index, int value) {
+		this.checkIndex(index);
+		int delta = value - this.values[index];
+		if (delta == 0)
+			return;
+
+		this.values[index] = value;
+		for (int node = index + 1; node <= this.size; node += node & -node) {
+			this.tree[node] += delta;
+		}
+	}
+
+	/**
+	 * Appends a value to the end of this tree.
+	 *
+	 * @param value the value to append
+	 */
+	public void add(int value) {
+		this.ensureCapacity(this.size + 1);
+		this.values[this.size] = value;
+		this.size++;
+		this.rebuildFrom(this.size - 1);
+	}
+
+	/**
+	 * Replaces the values in the given range by the given values.
+	 * <p>
+	 * If the number of values does not change, this is done in {@code O(k log n)}, otherwise the tree is rebuilt
+	 * from the start of the range.
+	 *
+	 * @param from the start of the replaced range, inclusive
+	 * @param to the end of the replaced range, exclusive
+	 * @param values the new values
+	 * @param offset the offset of the first new value in the array
+	 * @param length the number of new values
+	 */
+	public void replace(int from, int to, int[] values, int offset, int length) {
+		if (from < 0 || to > this.size || from > to)
+			throw new IndexOutOfBoundsException("range [" + from + ", " + to + "), size " + this.size);
+
+		if (to - from == length) {
+			for (int i = 0; i < length; i++) {
+				this.set(from + i, values[offset + i]);
+			}
+			return;
+		}
+
+		int newSize = this.size - (to - from) + length;
+		this.ensureCapacity(newSize);
+		System.arraycopy(this.values, to, this.values, from + length, this.size - to);
+		System.arraycopy(values, offset, this.values, from, length);
+		this.size = newSize;
+		this.rebuildFrom(from);
+	}
+
+	/**
+	 * Removes the values in the given range.
+	 *
+	 * @param from the start of the removed range, inclusive
+	 * @param to the end of the removed range, exclusive
+	 */
+	public void remove(int from, int to) {
+		this.replace(from, to, this.values, 0, 0);
+	}
+
+	/**
+	 * Replaces all the values of this tree, the tree is rebuilt in {@code O(n)}.
+	 *
+	 * @param values the new values
+	 * @param length the number of values
+	 */
+	public void setAll(int[] values, int length) {
+		this.size = 0;
+		this.ensureCapacity(length);
+		System.arraycopy(values, 0, this.values, 0, length);
+		this.size = length;
+		this.rebuildFrom(0);
+	}
+
+	/**
+	 * Removes all the values of this tree.
+	 */
+	public void clear() {
+		this.size = 0;
+	}
+
+	/**
+	 * Returns the sum of the values before the given index.
+	 *
+	 * @param end the end index, exclusive
+	 * @return the sum of the values in {@code [0, end)}
+	 */
+	public int prefixSum(int end) {
+		if (end < 0 || end > this.size)
+			throw new IndexOutOfBoundsException("index " + end + ", size " + this.size);
+
+		int sum = 0;
+		for (int node = end; node > 0; node -= node & -node) {
+			sum += this.tree[node];
+		}
+		return sum;
+	}
+
+	/**
+	 * {@return the sum of all the values}
+	 */
+	public int sum() {
+		return this.prefixSum(this.size);
+	}
+
+	/**
+	 * Finds the greatest index whose prefix sum is lower than or equal to the given value.
+	 * <p>
+	 * In other words, this is the number of leading values which fit entirely in the given value.
+	 *
+	 * @param value the value to search
+	 * @return the greatest index {@code i} such that {@code prefixSum(i) <= value}
+	 */
+	public int findIndex(int value) {
+		int index = 0;
+		for (int step = Integer.highestOneBit(Math.max(1, this.size)); step != 0; step >>= 1) {
+			int node = index + step;
+			if (node <= this.size && this.tree[node] <= value) {
+				index = node;
+				value -= this.tree[node];
+			}
+		}
+		return index;
+	}
+
+	/**
+	 * Rebuilds the nodes of the tree which cover values from the given index, in {@code O(n - from)}.
+	 * <p>
+	 * Each rebuilt node starts with its own value and is added to its parent once complete, visiting the nodes in order.
+	 *
+	 * @param from the first modified index
+	 */
+	private void rebuildFrom(int from) {
+		for (int node = from + 1; node <= this.size; node++) {
+			this.tree[node] = this.values[node - 1];
+		}
+
+		// The nodes of the prefix sum of the unmodified values are up to date, and are the only ones whose parent is rebuilt.
+		for (int node = from; node > 0; node -= node & -node) {
+			int parent = node + (node & -node);
+			if (parent <= this.size)
+				this.tree[parent] += this.tree[node];
+		}
+
+		for (int node = from + 1; node <= this.size; node++) {
+			int parent = node + (node & -node);
+			if (parent <= this.size)
+				this.tree[parent] += this.tree[node];
+		}
+	}
+
+	private void ensureCapacity(int capacity) {
+		if (capacity > this.values.length) {
+			int newCapacity = Math.max(capacity, this.values.length * 2);
+			this.values = Arrays.copyOf(this.values, newCapacity);
+			this.tree = Arrays.copyOf(this.tree, newCapacity + 1);
+		}
+	}
+
+	private void checkIndex(int index) {
+		if (index < 0 || index >= this.size)
+			throw new IndexOutOfBoundsException("index " + index + ", size " + this.size);
+	}
+}
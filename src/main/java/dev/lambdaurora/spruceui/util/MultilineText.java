@@ -9,25 +9,70 @@
 
 package dev.lambdaurora.spruceui.util;
 
+import dev.lambdaurora.spruceui.text.GlyphAdvanceCache;
+import dev.lambdaurora.spruceui.text.LineBreaks;
+import it.unimi.dsi.fastutil.ints.IntArrayList;
 import net.minecraft.client.Minecraft;
+import net.minecraft.util.math.MathHelper;
 import org.jetbrains.annotations.Nullable;
 
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
+import java.util.Collections;
+import java.util.ConcurrentModificationException;
 import java.util.List;
+import java.util.Objects;
 import java.util.function.Function;
 
 /**
  * Represents a multiline text.
+ * <p>
+ * Each row ending a logical line ends with a {@code \n} character, except the very last row of the text,
+ * which means that the concatenation of the rows is exactly the text.
+ * <p>
+ * The multiline text keeps an index of the first row of each logical line, which allows edits to only re-wrap
+ * the logical lines they touch, and allows re-wrapping lazily after a width change.
+ * The row lengths are kept in a {@link IntFenwickTree}, which makes conversions between row and column
+ * and offsets in the text {@code O(log n)}.
+ * <p>
+ * Rows are broken at any character by default, or at word boundaries if {@linkplain #setWordWrap(boolean) word wrapping}
+ * is enabled, in which case the {@link LineBreaks break opportunities} of each logical line are cached
+ * so that a width change re-wraps the lines without measuring them again.
+ * <p>
+ * The text can be read without being copied through {@linkplain #getTextView() character sequence views},
+ * which stay valid as long as the text is not modified, re-wrapping the rows does not invalidate them.
  *
  * @author LambdAurora
- * @version 3.3.0
+ * @version 6.2.0
  * @since 1.6.3
  */
 public final class MultilineText {
 	private final List<String> rows = new ArrayList<>();
+	private final IntFenwickTree rowLengths = new IntFenwickTree();
+	/**
+	 * The first row of each logical line.
+	 */
+	private final IntArrayList lineStarts = new IntArrayList();
+	/**
+	 * The width each logical line got wrapped with, a line wrapped with another width than the current one is stale.
+	 */
+	private final IntArrayList lineWidths = new IntArrayList();
+	/**
+	 * The break opportunities of each logical line when wrapping at word boundaries, {@code null} if not computed.
+	 */
+	private final List<@Nullable LineBreaks> lineBreaks = new ArrayList<>();
+	private int staleLines = 0;
+	/**
+	 * Incremented whenever the text changes, views of the text are invalidated by it.
+	 */
+	private int textVersion = 0;
+	/**
+	 * Incremented whenever the rows change, which invalidates the row cached by views.
+	 */
+	private int layoutVersion = 0;
 	private int width;
+	private boolean wordWrap = false;
 
 	public MultilineText(int width) {
 		this.width = width;
@@ -38,11 +83,13 @@ public final class MultilineText {
 		if (text == null)
 			return;
 		this.rows.addAll(wrap(text, width));
+		this.reindex();
 	}
 
 	public MultilineText(int width, Collection<? extends String> lines) {
 		this(width);
 		this.rows.addAll(wrap(lines, width));
+		this.reindex();
 	}
 
 	/**
@@ -60,34 +107,228 @@ public final class MultilineText {
 	 * @param width the width
 	 */
 	public void setWidth(int width) {
+		this.setWidth(width, false);
+	}
+
+	/**
+	 * Sets the maximum width of the multiline text.
+	 * <p>
+	 * If lazy, the rows are kept as they are and every logical line is marked as stale,
+	 * stale lines are then re-wrapped on demand using {@link #rewrapStaleLines(int, int)}.
+	 *
+	 * @param width the width
+	 * @param lazy {@code true} if the lines should be re-wrapped lazily, or {@code false} otherwise
+	 * @see #hasStaleLines()
+	 */
+	public void setWidth(int width, boolean lazy) {
 		if (this.width != width) {
 			this.width = width;
+
+			if (lazy) {
+				this.countStaleLines();
+			} else {
+				this.recompute();
+			}
+		}
+	}
+
+	/**
+	 * {@return {@code true} if rows are broken at word boundaries, or {@code false} if they are broken at any character}
+	 */
+	public boolean isWordWrap() {
+		return this.wordWrap;
+	}
+
+	/**
+	 * Sets whether rows are broken at word boundaries or at any character, and re-wraps the text.
+	 *
+	 * @param wordWrap {@code true} to break rows at word boundaries, or {@code false} to break them at any character
+	 */
+	public void setWordWrap(boolean wordWrap) {
+		if (this.wordWrap != wordWrap) {
+			this.wordWrap = wordWrap;
 			this.recompute();
 		}
 	}
 
-	public List<String> getRows() {
-		return this.rows;
+	/**
+	 * {@return {@code true} if some logical lines are not wrapped with the current width, or {@code false} otherwise}
+	 */
+	public boolean hasStaleLines() {
+		return this.staleLines != 0;
 	}
 
-	public List<String> getLines() {
-		var lines = new ArrayList<String>();
+	/**
+	 * Re-wraps stale logical lines, starting from the line of the given row.
+	 * <p>
+	 * Lines are re-wrapped from the given row downwards, then from the start of the text,
+	 * which allows to re-wrap the rows in the viewport first and spread the remaining work.
+	 *
+	 * @param fromRow the row to start re-wrapping from
+	 * @param maxLines the maximum number of logical lines to re-wrap
+	 * @return the number of re-wrapped logical lines
+	 */
+	public int rewrapStaleLines(int fromRow, int maxLines) {
+		if (!this.hasStaleLines() || this.rows.isEmpty())
+			return 0;
+
+		int fromLine = this.getLineOfRow(MathHelper.clamp(fromRow, 0, this.rows.size() - 1));
+		int rewrapped = this.rewrapStaleLines(fromLine, this.getLineCount(), maxLines);
+		if (rewrapped < maxLines)
+			rewrapped += this.rewrapStaleLines(0, fromLine, maxLines - rewrapped);
+		return rewrapped;
+	}
+
+	private int rewrapStaleLines(int fromLine, int toLine, int maxLines) {
+		int rewrapped = 0;
+		int line = fromLine;
 
-		var stringBuilder = new StringBuilder();
-		for (var row : this.rows) {
-			stringBuilder.append(row.replace("\n", ""));
-			if (row.endsWith("\n")) {
-				lines.add(stringBuilder.toString());
-				stringBuilder = new StringBuilder();
+		while (line < toLine && rewrapped < maxLines && this.hasStaleLines()) {
+			if (this.lineWidths.getInt(line) == this.width) {
+				line++;
+				continue;
 			}
+
+			// Group contiguous stale lines to splice them at once.
+			int lastLine = line;
+			while (lastLine + 1 < toLine && rewrapped + (lastLine + 1 - line) < maxLines
+					&& this.lineWidths.getInt(lastLine + 1) != this.width)
+				lastLine++;
+
+			this.rewrapLines(line, lastLine);
+
+			rewrapped += lastLine - line + 1;
+			line = lastLine + 1;
 		}
 
+		return rewrapped;
+	}
+
+	/**
+	 * {@return a read-only view of the rows, the text must be modified through this multiline text to keep its indices valid}
+	 */
+	public List<String> getRows() {
+		return Collections.unmodifiableList(this.rows);
+	}
+
+	/**
+	 * {@return the logical lines of the text, without their line breaks}
+	 */
+	public List<String> getLines() {
+		var lines = new ArrayList<String>(this.getLineCount());
+		for (int line = 0; line < this.getLineCount(); line++)
+			lines.add(this.getLine(line));
 		return lines;
 	}
 
+	/**
+	 * Returns the text of the given logical line, from the rows indexed by the line index.
+	 *
+	 * @param line the logical line
+	 * @return the text of the line, without its line break
+	 */
+	public String getLine(int line) {
+		return this.getLineView(line).toString();
+	}
+
+	/**
+	 * Returns a view of the given logical line which does not copy the text.
+	 *
+	 * @param line the logical line
+	 * @return the view of the line, without its line break
+	 * @see #getTextView()
+	 */
+	public CharSequence getLineView(int line) {
+		int start = this.getOffset(this.getLineStartRow(line), 0);
+		int endRow = this.getLineEndRow(line) - 1;
+		return new TextView(start, this.getOffset(endRow, 0) + this.getRowLength(endRow));
+	}
+
+	/**
+	 * Returns a view of the given row which does not copy the text.
+	 *
+	 * @param row the row
+	 * @return the view of the row, without its line break
+	 * @see #getTextView()
+	 */
+	public CharSequence getRowView(int row) {
+		int start = this.getOffset(row, 0);
+		return new TextView(start, start + this.getRowLength(row));
+	}
+
+	/**
+	 * Returns a view of the whole text which does not copy it.
+	 * <p>
+	 * Reading a view is {@code O(log n)} for the first character and then amortized {@code O(1)} when reading in order.
+	 * Views keep reading the current rows, which means that they stay valid while the text is re-wrapped,
+	 * but reading a view after the text is modified throws a {@link ConcurrentModificationException}.
+	 *
+	 * @return the view of the text
+	 */
+	public CharSequence getTextView() {
+		return new TextView(0, this.rowLengths.prefixSum(this.rowLengths.size()));
+	}
+
+	/**
+	 * {@return the length of the given row without its line break}
+	 */
+	private int getRowLength(int row) {
+		var text = this.rows.get(row);
+		return text.endsWith("\n") ? text.length() - 1 : text.length();
+	}
+
 	public void setLines(Collection<? extends String> lines) {
-		this.clear();
-		this.addAll(wrap(lines, this.width));
+		this.setText(String.join("\n", lines));
+	}
+
+	/**
+	 * Returns the number of logical lines.
+	 *
+	 * @return the number of logical lines
+	 */
+	public int getLineCount() {
+		return this.lineStarts.size();
+	}
+
+	/**
+	 * Returns the logical line the given row is part of.
+	 *
+	 * @param row the row
+	 * @return the logical line
+	 */
+	public int getLineOfRow(int row) {
+		int low = 0;
+		int high = this.lineStarts.size() - 1;
+
+		while (low < high) {
+			int middle = (low + high + 1) >>> 1;
+			if (this.lineStarts.getInt(middle) <= row)
+				low = middle;
+			else
+				high = middle - 1;
+		}
+
+		return low;
+	}
+
+	/**
+	 * Returns the first row of the given logical line.
+	 *
+	 * @param line the logical line
+	 * @return the first row of the line
+	 */
+	public int getLineStartRow(int line) {
+		return this.lineStarts.getInt(line);
+	}
+
+	/**
+	 * Returns the row after the last row of the given logical line.
+	 *
+	 * @param line the logical line
+	 * @return the end row of the line, exclusive
+	 */
+	public int getLineEndRow(int line) {
+		return line + 1 < this.lineStarts.size() ? this.lineStarts.getInt(line + 1) : this.rows.size();
 	}
 
 	/**
@@ -96,10 +337,7 @@ public final class MultilineText {
 	 * @return The text.
 	 */
 	public String getText() {
-		var builder = new StringBuilder();
-		for (var row : this.rows)
-			builder.append(row);
-		return builder.toString();
+		return this.getTextView().toString();
 	}
 
 	/**
@@ -108,17 +346,445 @@ public final class MultilineText {
 	 * @param text The text.
 	 */
 	public void setText(String text) {
-		this.clear();
-		this.add(text);
+		this.textVersion++;
+		this.rows.clear();
+		this.lineStarts.clear();
+		this.lineWidths.clear();
+		this.lineBreaks.clear();
+		this.staleLines = 0;
+		wrapBlock(text, this.width, this.wordWrap, 0, this.rows, this.lineStarts, this.lineBreaks);
+		for (int line = 0; line < this.lineStarts.size(); line++)
+			this.lineWidths.add(this.width);
+		this.rebuildRowLengths();
+	}
+
+	/**
+	 * Replaces a range of the text.
+	 * <p>
+	 * Only the logical lines touched by the edit are re-wrapped, the resulting rows are spliced in place of the old ones.
+	 *
+	 * @param start the start offset of the replaced range, inclusive
+	 * @param end the end offset of the replaced range, exclusive
+	 * @param replacement the replacement text
+	 */
+	public void replace(int start, int end, String replacement) {
+		this.textVersion++;
+		if (this.rows.isEmpty()) {
+			this.setText(replacement);
+			return;
+		}
+
+		int firstLine = this.getLineOfRow(this.getRowAtOffset(start));
+		int lastLine = this.getLineOfRow(this.getRowAtOffset(end));
+
+		int firstRow = this.getLineStartRow(firstLine);
+		int lastRow = this.getLineEndRow(lastLine) - 1;
+
+		int blockStart = this.getOffset(firstRow, 0);
+		var block = new StringBuilder();
+		for (int row = firstRow; row <= lastRow; row++)
+			block.append(this.rows.get(row));
+		block.replace(start - blockStart, end - blockStart, replacement);
+
+		this.spliceLines(firstLine, lastLine, block.toString());
+	}
+
+	/**
+	 * Replaces several ranges of the text at once.
+	 * <p>
+	 * The ranges are given as offsets in the text before any replacement, sorted and without overlap.
+	 * The logical lines touched by the ranges are re-wrapped, and the rows, the line index and the row lengths
+	 * are updated once for all the ranges, which makes the edit cost independent of the number of ranges.
+	 *
+	 * @param starts the start offsets of the replaced ranges, inclusive
+	 * @param ends the end offsets of the replaced ranges, exclusive
+	 * @param replacements the replacement text of each range
+	 */
+	public void replace(int[] starts, int[] ends, String[] replacements) {
+		this.textVersion++;
+		if (starts.length <= 1 || this.rows.isEmpty()) {
+			for (int i = starts.length - 1; i >= 0; i--)
+				this.replace(starts[i], ends[i], replacements[i]);
+			return;
+		}
+
+		int firstLine = this.getLineOfRow(this.getRowAtOffset(starts[0]));
+		int firstRow = this.getLineStartRow(firstLine);
+		var newRows = new ArrayList<String>();
+		var newLineStarts = new IntArrayList();
+		var newLineWidths = new IntArrayList();
+		var newLineBreaks = new ArrayList<@Nullable LineBreaks>();
+		var block = new StringBuilder();
+
+		int nextLine = firstLine;
+		int i = 0;
+		while (i < starts.length) {
+			// Ranges touching the same logical lines are re-wrapped together.
+			int groupFirstLine = this.getLineOfRow(this.getRowAtOffset(starts[i]));
+			int groupLastLine = this.getLineOfRow(this.getRowAtOffset(ends[i]));
+			int groupEnd = i + 1;
+			while (groupEnd < starts.length && this.getLineOfRow(this.getRowAtOffset(starts[groupEnd])) <= groupLastLine) {
+				groupLastLine = Math.max(groupLastLine, this.getLineOfRow(this.getRowAtOffset(ends[groupEnd])));
+				groupEnd++;
+			}
+
+			// The untouched lines in between are moved as they are.
+			int groupFirstRow = this.getLineStartRow(groupFirstLine);
+			int rowShift = firstRow + newRows.size() - this.getLineStartRow(nextLine);
+			for (int line = nextLine; line < groupFirstLine; line++) {
+				newLineStarts.add(this.lineStarts.getInt(line) + rowShift);
+				newLineWidths.add(this.lineWidths.getInt(line));
+				newLineBreaks.add(this.lineBreaks.get(line));
+			}
+			newRows.addAll(this.rows.subList(this.getLineStartRow(nextLine), groupFirstRow));
+
+			int groupEndRow = this.getLineEndRow(groupLastLine);
+			int blockStart = this.getOffset(groupFirstRow, 0);
+			block.setLength(0);
+			for (int row = groupFirstRow; row < groupEndRow; row++)
+				block.append(this.rows.get(row));
+			for (int j = groupEnd - 1; j >= i; j--)
+				block.replace(starts[j] - blockStart, ends[j] - blockStart, replacements[j]);
+
+			this.wrapLines(groupFirstLine, groupLastLine, block.toString(), firstRow, newRows, newLineStarts, newLineWidths, newLineBreaks);
+
+			nextLine = groupLastLine + 1;
+			i = groupEnd;
+		}
+
+		this.spliceRows(firstLine, nextLine - 1, newRows, newLineStarts, newLineWidths, newLineBreaks);
+	}
+
+	/**
+	 * Wraps the given text into rows, without modifying any multiline text.
+	 * <p>
+	 * This can be done from another thread than the render thread, the result can then be appended
+	 * to a multiline text with {@link #append(WrappedText)}.
+	 *
+	 * @param text the text to wrap
+	 * @param width the maximum width of a row
+	 * @return the wrapped text
+	 */
+	public static WrappedText wrapText(String text, int width) {
+		return wrapText(text, width, false);
+	}
+
+	/**
+	 * Wraps the given text into rows, without modifying any multiline text.
+	 * <p>
+	 * This can be done from another thread than the render thread, the result can then be appended
+	 * to a multiline text with {@link #append(WrappedText)}.
+	 *
+	 * @param text the text to wrap
+	 * @param width the maximum width of a row
+	 * @param wordWrap {@code true} to break rows at word boundaries, or {@code false} to break them at any character
+	 * @return the wrapped text
+	 */
+	public static WrappedText wrapText(String text, int width, boolean wordWrap) {
+		var rows = new ArrayList<String>();
+		var lineStarts = new IntArrayList();
+		var lineBreaks = new ArrayList<@Nullable LineBreaks>();
+		wrapBlock(text, width, wordWrap, 0, rows, lineStarts, lineBreaks);
+		return new WrappedText(text, width, wordWrap, rows, lineStarts.toIntArray(), lineBreaks);
+	}
+
+	/**
+	 * Appends already wrapped text at the end of the text.
+	 * <p>
+	 * If the text ends with a line break, the wrapped rows are appended as they are,
+	 * otherwise only the last row and the first appended rows are re-wrapped, until the row boundaries match again.
+	 * Parts of a long line are best appended without their last row, which is wrapped again with the following part,
+	 * so that the row boundaries match right away.
+	 * Rows wrapped with another width or wrapping mode than the current ones are marked as stale,
+	 * and appending them to an unterminated line re-wraps the whole appended text, or the whole last logical line when wrapping at word boundaries.
+	 *
+	 * @param wrapped the wrapped text to append
+	 */
+	public void append(WrappedText wrapped) {
+		if (wrapped.text().isEmpty())
+			return;
+
+		this.textVersion++;
+
+		// Rows wrapped with another mode are stale whatever their width is.
+		int wrappedWidth = wrapped.wordWrap() == this.wordWrap ? wrapped.width() : -1;
+
+		if (this.rows.isEmpty()) {
+			this.rows.addAll(wrapped.rows());
+			this.lineStarts.addElements(0, wrapped.lineStarts());
+			for (int line = 0; line < wrapped.lineStarts().length; line++)
+				this.lineWidths.add(wrappedWidth);
+			this.lineBreaks.addAll(wrapped.lineBreaks());
+			if (wrappedWidth != this.width)
+				this.staleLines += wrapped.lineStarts().length;
+			this.rebuildRowLengths();
+			return;
+		}
+
+		int lastRow = this.rows.size() - 1;
+		var lastRowText = this.rows.get(lastRow);
+		if (!lastRowText.isEmpty() && wrappedWidth == this.width && this.lineWidths.getInt(this.lineStarts.size() - 1) == this.width) {
+			this.appendToLastRow(wrapped);
+			return;
+		} else if (!lastRowText.isEmpty() && this.wordWrap) {
+			// The break opportunities of the whole last logical line change with the appended text.
+			int lastLine = this.lineStarts.size() - 1;
+			var block = new StringBuilder();
+			for (int row = this.getLineStartRow(lastLine); row <= lastRow; row++)
+				block.append(this.rows.get(row));
+			block.append(wrapped.text());
+			this.spliceLines(lastLine, lastLine, block.toString());
+			return;
+		} else if (!lastRowText.isEmpty()) {
+			// Wrapping is greedy, so only the last row of the last logical line is affected by the appended text.
+			var rewrapped = wrapText(lastRowText + wrapped.text(), this.width);
+			this.rows.remove(lastRow);
+			this.rows.addAll(rewrapped.rows());
+			for (int line = 1; line < rewrapped.lineStarts().length; line++) {
+				this.lineStarts.add(lastRow + rewrapped.lineStarts()[line]);
+				this.lineWidths.add(this.width);
+				this.lineBreaks.add(null);
+			}
+
+			this.replaceRowLengths(lastRow, lastRow + 1, rewrapped.rows());
+			return;
+		}
+
+		// The empty last row is the last logical line, which gets replaced by the first appended line.
+		int lastLine = this.lineStarts.size() - 1;
+		if (this.lineWidths.getInt(lastLine) != this.width)
+			this.staleLines--;
+		this.lineStarts.removeInt(lastLine);
+		this.lineWidths.removeInt(lastLine);
+		this.lineBreaks.remove(lastLine);
+		this.rows.remove(lastRow);
+
+		this.rows.addAll(wrapped.rows());
+		for (int lineStart : wrapped.lineStarts()) {
+			this.lineStarts.add(lastRow + lineStart);
+			this.lineWidths.add(wrappedWidth);
+		}
+		this.lineBreaks.addAll(wrapped.lineBreaks());
+		if (wrappedWidth != this.width)
+			this.staleLines += wrapped.lineStarts().length;
+
+		this.replaceRowLengths(lastRow, lastRow + 1, wrapped.rows());
+	}
+
+	/**
+	 * Appends text wrapped with the current width and wrapping mode after a last row which does not end with a line break.
+	 * <p>
+	 * Wrapping is greedy, so once a re-wrapped row starts where an appended row starts, the following appended rows are kept as they are.
+	 *
+	 * @param wrapped the wrapped text to append
+	 */
+	private void appendToLastRow(WrappedText wrapped) {
+		int lastRow = this.rows.size() - 1;
+		int lastLine = this.lineStarts.size() - 1;
+		var appendedRows = wrapped.rows();
+		int[] appendedLineStarts = wrapped.lineStarts();
+		// The first appended logical line continues the last logical line.
+		int firstLineEnd = appendedLineStarts.length > 1 ? appendedLineStarts[1] : appendedRows.size();
+
+		var seam = new StringBuilder(this.rows.get(lastRow));
+		var rewrapped = new ArrayList<String>();
+		int consumed = 0;
+		while (consumed < firstLineEnd) {
+			var appendedRow = appendedRows.get(consumed++);
+			seam.append(appendedRow);
+			boolean lineBreak = consumed == firstLineEnd && appendedLineStarts.length > 1;
+
+			rewrapped.clear();
+			wrapLine(seam.toString(), 0, lineBreak ? seam.length() - 1 : seam.length(), this.width, this.wordWrap, lineBreak, rewrapped);
+			if (rewrapped.get(rewrapped.size() - 1).length() == appendedRow.length()) {
+				// The last re-wrapped row starts where the appended row starts, so it and the following rows are kept.
+				rewrapped.remove(rewrapped.size() - 1);
+				consumed--;
+				break;
+			}
+		}
+
+		var newRows = new ArrayList<String>(rewrapped.size() + appendedRows.size() - consumed);
+		newRows.addAll(rewrapped);
+		newRows.addAll(appendedRows.subList(consumed, appendedRows.size()));
+		this.rows.remove(lastRow);
+		this.rows.addAll(newRows);
+
+		int rowShift = lastRow + rewrapped.size() - consumed;
+		for (int line = 1; line < appendedLineStarts.length; line++) {
+			this.lineStarts.add(rowShift + appendedLineStarts[line]);
+			this.lineWidths.add(this.width);
+			this.lineBreaks.add(wrapped.lineBreaks().get(line));
+		}
+		// The break opportunities of the continued line are only known up to its previous end, they are found again on the next re-wrap.
+		this.lineBreaks.set(lastLine, null);
+
+		this.replaceRowLengths(lastRow, lastRow + 1, newRows);
+	}
+
+	/**
+	 * Replaces the given logical lines with the wrapped rows of the given text.
+	 *
+	 * @param firstLine the first replaced logical line
+	 * @param lastLine the last replaced logical line, inclusive
+	 * @param block the new text of the lines, ending with a line break unless the lines are the last ones
+	 */
+	private void spliceLines(int firstLine, int lastLine, String block) {
+		var newRows = new ArrayList<String>();
+		var newLineStarts = new IntArrayList();
+		var newLineWidths = new IntArrayList();
+		var newLineBreaks = new ArrayList<@Nullable LineBreaks>();
+		this.wrapLines(firstLine, lastLine, block, this.getLineStartRow(firstLine), newRows, newLineStarts, newLineWidths, newLineBreaks);
+		this.spliceRows(firstLine, lastLine, newRows, newLineStarts, newLineWidths, newLineBreaks);
+	}
+
+	/**
+	 * Re-wraps the given logical lines with the current width and wrapping mode.
+	 * <p>
+	 * When wrapping at word boundaries, the cached break opportunities of the lines are reused if they are still valid.
+	 *
+	 * @param firstLine the first logical line to re-wrap
+	 * @param lastLine the last logical line to re-wrap, inclusive
+	 */
+	private void rewrapLines(int firstLine, int lastLine) {
+		int firstRow = this.getLineStartRow(firstLine);
+		if (!this.wordWrap) {
+			var block = new StringBuilder();
+			for (int row = firstRow; row < this.getLineEndRow(lastLine); row++)
+				block.append(this.rows.get(row));
+			this.spliceLines(firstLine, lastLine, block.toString());
+			return;
+		}
+
+		var newRows = new ArrayList<String>();
+		var newLineStarts = new IntArrayList();
+		var newLineWidths = new IntArrayList();
+		var newLineBreaks = new ArrayList<@Nullable LineBreaks>();
+		for (int line = firstLine; line <= lastLine; line++) {
+			var breaks = this.lineBreaks.get(line);
+			if (breaks == null || breaks.getGlyphGeneration() != GlyphAdvanceCache.getGeneration()) {
+				var text = new StringBuilder();
+				for (int row = this.getLineStartRow(line); row < this.getLineEndRow(line); row++)
+					text.append(this.rows.get(row));
+				if (line != this.getLineCount() - 1)
+					text.setLength(text.length() - 1);
+				breaks = LineBreaks.of(text.toString());
+			}
+
+			newLineStarts.add(firstRow + newRows.size());
+			wrapWords(breaks, this.width, line != this.getLineCount() - 1, newRows);
+			newLineWidths.add(this.width);
+			newLineBreaks.add(breaks);
+			if (this.lineWidths.getInt(line) != this.width)
+				this.staleLines--;
+		}
+
+		this.spliceRows(firstLine, lastLine, newRows, newLineStarts, newLineWidths, newLineBreaks);
+	}
+
+	/**
+	 * Wraps the new text of the given logical lines.
+	 *
+	 * @param firstLine the first replaced logical line
+	 * @param lastLine the last replaced logical line, inclusive
+	 * @param block the new text of the lines, ending with a line break unless the lines are the last ones
+	 * @param firstRow the row index the first row of {@code rows} will have
+	 * @param rows the list to add the rows to
+	 * @param lineStarts the list to add the first row of each logical line to
+	 * @param lineWidths the list to add the wrapping width of each logical line to
+	 * @param lineBreaks the list to add the break opportunities of each logical line to
+	 */
+	private void wrapLines(int firstLine, int lastLine, String block, int firstRow,
+			List<String> rows, IntArrayList lineStarts, IntArrayList lineWidths, List<@Nullable LineBreaks> lineBreaks) {
+		int lineCount = lineStarts.size();
+		wrapBlock(block, this.width, this.wordWrap, firstRow, rows, lineStarts, lineBreaks);
+		if (lastLine != this.getLineCount() - 1) {
+			// The block ends with a line break, which does not start a new line within the block.
+			rows.remove(rows.size() - 1);
+			lineStarts.removeInt(lineStarts.size() - 1);
+			lineBreaks.remove(lineBreaks.size() - 1);
+		}
+
+		for (int line = lineCount; line < lineStarts.size(); line++)
+			lineWidths.add(this.width);
+		for (int line = firstLine; line <= lastLine; line++) {
+			if (this.lineWidths.getInt(line) != this.width)
+				this.staleLines--;
+		}
+	}
+
+	/**
+	 * Replaces the rows of the given logical lines, and shifts the index of the following lines.
+	 *
+	 * @param firstLine the first replaced logical line
+	 * @param lastLine the last replaced logical line, inclusive
+	 * @param newRows the new rows
+	 * @param newLineStarts the first row of each new logical line
+	 * @param newLineWidths the wrapping width of each new logical line
+	 * @param newLineBreaks the break opportunities of each new logical line
+	 */
+	private void spliceRows(int firstLine, int lastLine, List<String> newRows, IntArrayList newLineStarts, IntArrayList newLineWidths,
+			List<@Nullable LineBreaks> newLineBreaks) {
+		int firstRow = this.getLineStartRow(firstLine);
+		int endRow = this.getLineEndRow(lastLine);
+
+		var section = this.rows.subList(firstRow, endRow);
+		section.clear();
+		section.addAll(newRows);
+
+		this.replaceRowLengths(firstRow, endRow, newRows);
+
+		this.lineStarts.removeElements(firstLine, lastLine + 1);
+		this.lineWidths.removeElements(firstLine, lastLine + 1);
+		this.lineStarts.addElements(firstLine, newLineStarts.elements(), 0, newLineStarts.size());
+		this.lineWidths.addElements(firstLine, newLineWidths.elements(), 0, newLineWidths.size());
+		var breaks = this.lineBreaks.subList(firstLine, lastLine + 1);
+		breaks.clear();
+		breaks.addAll(newLineBreaks);
+
+		int rowDelta = newRows.size() - (endRow - firstRow);
+		if (rowDelta != 0) {
+			// The following lines are shifted directly in the backing array.
+			int[] starts = this.lineStarts.elements();
+			for (int line = firstLine + newLineStarts.size(), size = this.lineStarts.size(); line < size; line++)
+				starts[line] += rowDelta;
+		}
+	}
+
+	/**
+	 * Returns the offset in the text of the given row and column.
+	 *
+	 * @param row the row
+	 * @param column the column in the row
+	 * @return the offset in the text
+	 */
+	public int getOffset(int row, int column) {
+		return this.rowLengths.prefixSum(MathHelper.clamp(row, 0, this.rowLengths.size())) + column;
+	}
+
+	/**
+	 * Returns the row which contains the given offset.
+	 * <p>
+	 * An offset at the boundary of two rows is considered part of the latter.
+	 *
+	 * @param offset the offset in the text
+	 * @return the row
+	 */
+	public int getRowAtOffset(int offset) {
+		return Math.max(0, Math.min(this.rowLengths.findIndex(offset), this.rows.size() - 1));
 	}
 
 	/**
 	 * Recomputes the lines wrapping.
 	 */
 	public void recompute() {
-		var text = this.getText();
-		this.clear();
-		this.add(text);
+		if (this.rows.isEmpty()) {
+			this.setText(this.getText());
+			return;
+		}
+
+		this.countStaleLines();
+		this.rewrapLines(0, this.getLineCount() - 1);
 	}
 
 	public boolean isEmpty() {
@@ -135,6 +801,7 @@ public final class MultilineText {
 
 	public void addAll(Collection<? extends String> lines) {
 		this.rows.addAll(lines);
+		this.reindex();
 	}
 
 	/**
@@ -147,6 +814,7 @@ public final class MultilineText {
 			this.rows.addAll(wrap(line, this.width));
 		else
 			this.rows.add(line);
+		this.reindex();
 	}
 
 	/**
@@ -157,6 +825,7 @@ public final class MultilineText {
 	 */
 	public void add(int row, String line) {
 		this.rows.add(row, line);
+		this.reindex();
 	}
 
 	/**
@@ -168,7 +837,9 @@ public final class MultilineText {
 	public @Nullable String remove(int row) {
 		if (row < 0 || row >= this.rows.size())
 			return null;
-		return this.rows.remove(row);
+		var removed = this.rows.remove(row);
+		this.reindex();
+		return removed;
 	}
 
 	/**
@@ -180,8 +851,8 @@ public final class MultilineText {
 	public void replaceRow(int row, String line) {
 		if (row < 0 || row >= this.rows.size())
 			return;
-		this.remove(row);
-		this.rows.add(row, line);
+		this.rows.set(row, line);
+		this.reindex();
 	}
 
 	public void replaceRow(int row, Function<String, String> replacer) {
@@ -195,7 +866,171 @@ public final class MultilineText {
 	 * Clears the text.
 	 */
 	public void clear() {
+		this.textVersion++;
+		this.layoutVersion++;
 		this.rows.clear();
+		this.rowLengths.clear();
+		this.lineStarts.clear();
+		this.lineWidths.clear();
+		this.lineBreaks.clear();
+		this.staleLines = 0;
+	}
+
+	private void countStaleLines() {
+		this.staleLines = 0;
+		for (int line = 0; line < this.lineWidths.size(); line++) {
+			if (this.lineWidths.getInt(line) != this.width)
+				this.staleLines++;
+		}
+	}
+
+	/**
+	 * Rebuilds the logical line index from the rows, used after direct row manipulations.
+	 */
+	private void reindex() {
+		this.textVersion++;
+		this.rebuildRowLengths();
+		this.lineStarts.clear();
+		this.lineWidths.clear();
+		this.lineBreaks.clear();
+		this.staleLines = 0;
+
+		if (this.rows.isEmpty())
+			return;
+
+		this.lineStarts.add(0);
+		for (int row = 0; row < this.rows.size() - 1; row++) {
+			if (this.rows.get(row).endsWith("\n"))
+				this.lineStarts.add(row + 1);
+		}
+
+		for (int line = 0; line < this.lineStarts.size(); line++) {
+			this.lineWidths.add(this.width);
+			this.lineBreaks.add(null);
+		}
+	}
+
+	private void replaceRowLengths(int fromRow, int toRow, List<String> newRows) {
+		var lengths = new int[newRows.size()];
+		for (int i = 0; i < lengths.length; i++)
+			lengths[i] = newRows.get(i).length();
+		this.rowLengths.replace(fromRow, toRow, lengths, 0, lengths.length);
+		this.layoutVersion++;
+	}
+
+	private void rebuildRowLengths() {
+		var lengths = new int[this.rows.size()];
+		for (int row = 0; row < lengths.length; row++)
+			lengths[row] = this.rows.get(row).length();
+		this.rowLengths.setAll(lengths, lengths.length);
+		this.layoutVersion++;
+	}
+
+	/**
+	 * Wraps the given text into rows.
+	 * <p>
+	 * Every logical line gets its last row terminated by a {@code \n} character, except the last logical line.
+	 *
+	 * @param text the text to wrap
+	 * @param width the maximum width of a row
+	 * @param wordWrap {@code true} to break rows at word boundaries, or {@code false} to break them at any character
+	 * @param firstRow the row index the first wrapped row will have
+	 * @param rows the list to add the rows to
+	 * @param lineStarts the list to add the first row of each logical line to
+	 * @param lineBreaks the list to add the break opportunities of each logical line to
+	 */
+	private static void wrapBlock(String text, int width, boolean wordWrap, int firstRow,
+			List<String> rows, IntArrayList lineStarts, List<@Nullable LineBreaks> lineBreaks) {
+		int lineStart = 0;
+		int lineEnd;
+		while ((lineEnd = text.indexOf('\n', lineStart)) != -1) {
+			lineStarts.add(firstRow + rows.size());
+			lineBreaks.add(wrapLine(text, lineStart, lineEnd, width, wordWrap, true, rows));
+			lineStart = lineEnd + 1;
+		}
+		lineStarts.add(firstRow + rows.size());
+		lineBreaks.add(wrapLine(text, lineStart, text.length(), width, wordWrap, false, rows));
+	}
+
+	/**
+	 * Wraps a logical line of the given text into rows.
+	 *
+	 * @param text the text
+	 * @param start the start of the line in the text
+	 * @param end the end of the line in the text, excluding the line break
+	 * @param width the maximum width of a row
+	 * @param wordWrap {@code true} to break rows at word boundaries, or {@code false} to break them at any character
+	 * @param lineBreak {@code true} if the line is followed by a line break, or {@code false} otherwise
+	 * @param rows the list to add the rows to
+	 * @return the break opportunities of the line if wrapping at word boundaries, or {@code null} otherwise
+	 */
+	private static @Nullable LineBreaks wrapLine(String text, int start, int end, int width, boolean wordWrap, boolean lineBreak,
+			List<String> rows) {
+		if (!wordWrap) {
+			wrapLine(text, start, end, width, lineBreak, rows);
+			return null;
+		}
+
+		var breaks = LineBreaks.of(text.substring(start, end));
+		wrapWords(breaks, width, lineBreak, rows);
+		return breaks;
+	}
+
+	/**
+	 * Wraps a logical line into rows at its break opportunities.
+	 *
+	 * @param breaks the break opportunities of the line
+	 * @param width the maximum width of a row
+	 * @param lineBreak {@code true} if the line is followed by a line break, or {@code false} otherwise
+	 * @param rows the list to add the rows to
+	 */
+	private static void wrapWords(LineBreaks breaks, int width, boolean lineBreak, List<String> rows) {
+		var line = breaks.getLine();
+		if (line.isEmpty() || Minecraft.getInstance() == null) {
+			rows.add(lineBreak ? line + '\n' : line);
+			return;
+		}
+
+		int start = 0;
+		while (start < line.length()) {
+			int end = breaks.getRowEnd(start, width);
+			if (end == line.length() && lineBreak)
+				rows.add(line.substring(start) + '\n');
+			else
+				rows.add(line.substring(start, end));
+			start = end;
+		}
+	}
+
+	/**
+	 * Wraps a logical line of the given text into rows.
+	 *
+	 * @param text the text
+	 * @param start the start of the line in the text
+	 * @param end the end of the line in the text, excluding the line break
+	 * @param width the maximum width of a row
+	 * @param lineBreak {@code true} if the line is followed by a line break, or {@code false} otherwise
+	 * @param rows the list to add the rows to
+	 */
+	private static void wrapLine(String text, int start, int end, int width, boolean lineBreak, List<String> rows) {
+		if (start == end || Minecraft.getInstance() == null) {
+			rows.add(text.substring(start, lineBreak ? end + 1 : end));
+			return;
+		}
+
+		while (start < end) {
+			int partEnd = GlyphAdvanceCache.headEndAtWidth(text, start, end, width);
+			if (partEnd == start) {
+				// Always make progress, even if a single glyph is wider than the row.
+				partEnd = start + Character.charCount(text.codePointAt(start));
+			}
+
+			if (partEnd == end && lineBreak)
+				rows.add(text.substring(start, end + 1));
+			else
+				rows.add(text.substring(start, partEnd));
+			start = partEnd;
+		}
 	}
 
 	public static Collection<? extends String> wrap(String text, int width) {
@@ -217,7 +1052,7 @@ public final class MultilineText {
 
 			if (line.endsWith("\n")) line = line.substring(0, line.length() - 1);
 			while (!line.isEmpty()) {
-				var part = client.font.plainSubstrByWidth(line, width);
+				var part = GlyphAdvanceCache.plainSubstrByWidth(line, width);
 				line = line.substring(part.length());
 				lines.add(part);
 			}
@@ -227,4 +1062,99 @@ public final class MultilineText {
 
 		return lines;
 	}
+
+	/**
+	 * Represents a view of a range of the text, which reads the characters from the rows.
+	 * <p>
+	 * The row containing the last read character is cached, so reading the characters in order does not search the rows again.
+	 */
+	private final class TextView implements CharSequence {
+		private final int start;
+		private final int end;
+		private final int textVersion;
+		private int layoutVersion = -1;
+		private int row;
+		private int rowStart;
+		private int rowEnd;
+
+		private TextView(int start, int end) {
+			this(start, end, MultilineText.this.textVersion);
+		}
+
+		private TextView(int start, int end, int textVersion) {
+			this.start = start;
+			this.end = end;
+			this.textVersion = textVersion;
+		}
+
+		@Override
+		public int length() {
+			return this.end - this.start;
+		}
+
+		@Override
+		public char charAt(int index) {
+			Objects.checkIndex(index, this.length());
+			this.checkForModification();
+
+			int offset = this.start + index;
+			if (this.layoutVersion != MultilineText.this.layoutVersion || offset < this.rowStart || offset >= this.rowEnd) {
+				this.row = MultilineText.this.getRowAtOffset(offset);
+				this.rowStart = MultilineText.this.getOffset(this.row, 0);
+				this.rowEnd = this.rowStart + MultilineText.this.rows.get(this.row).length();
+				this.layoutVersion = MultilineText.this.layoutVersion;
+			}
+
+			return MultilineText.this.rows.get(this.row).charAt(offset - this.rowStart);
+		}
+
+		@Override
+		public CharSequence subSequence(int start, int end) {
+			Objects.checkFromToIndex(start, end, this.length());
+			this.checkForModification();
+			return new TextView(this.start + start, this.start + end, this.textVersion);
+		}
+
+		@Override
+		public String toString() {
+			this.checkForModification();
+			if (this.start == this.end)
+				return "";
+
+			int row = MultilineText.this.getRowAtOffset(this.start);
+			int rowStart = MultilineText.this.getOffset(row, 0);
+			var text = MultilineText.this.rows.get(row);
+			if (this.end <= rowStart + text.length())
+				return text.substring(this.start - rowStart, this.end - rowStart);
+
+			var builder = new StringBuilder(this.length());
+			builder.append(text, this.start - rowStart, text.length());
+			int offset = rowStart + text.length();
+			while (offset < this.end) {
+				text = MultilineText.this.rows.get(++row);
+				builder.append(text, 0, Math.min(text.length(), this.end - offset));
+				offset += text.length();
+			}
+			return builder.toString();
+		}
+
+		private void checkForModification() {
+			if (this.textVersion != MultilineText.this.textVersion)
+				throw new ConcurrentModificationException("The text has been modified since the view got created.");
+		}
+	}
+
+	/**
+	 * Represents text wrapped into rows, following the same row conventions as a multiline text.
+	 *
+	 * @param text the wrapped text
+	 * @param width the width the text got wrapped with
+	 * @param wordWrap {@code true} if the rows are broken at word boundaries, or {@code false} otherwise
+	 * @param rows the rows
+	 * @param lineStarts the first row of each logical line
+	 * @param lineBreaks the break opportunities of each logical line, {@code null} if not wrapped at word boundaries
+	 */
+	public record WrappedText(String text, int width, boolean wordWrap, List<String> rows, int[] lineStarts,
+			List<@Nullable LineBreaks> lineBreaks) {
+	}
 }
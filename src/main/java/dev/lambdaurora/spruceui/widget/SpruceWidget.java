@@ -18,7 +18,7 @@ import net.minecraft.client.gui.narration.NarratableEntry;
  * Represents a widget.
  *
  * @author LambdAurora
- * @version 3.3.0
+ * @version 6.2.0
  * @since 1.6.0
  */
 public interface SpruceWidget extends SprucePositioned, SpruceElement, NarratableEntry, Renderable {
@@ -135,4 +135,20 @@ public interface SpruceWidget extends SprucePositioned, SpruceElement, Narratabl
 	boolean isDragging();
 
 	void setDragging(boolean dragging);
+
+	/**
+	 * Ticks this widget, called once per client tick by its screen or its parent widget.
+	 *
+	 * @since 6.2.0
+	 */
+	default void tick() {
+	}
+
+	/**
+	 * Called when this widget is discarded, either because its screen is closed or because its screen rebuilds its widgets.
+	 *
+	 * @since 6.2.0
+	 */
+	default void removed() {
+	}
 }
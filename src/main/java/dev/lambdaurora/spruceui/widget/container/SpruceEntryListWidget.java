@@ -19,6 +19,7 @@ import dev.lambdaurora.spruceui.background.MenuBackground;
 import dev.lambdaurora.spruceui.border.Border;
 import dev.lambdaurora.spruceui.border.MenuBorder;
 import dev.lambdaurora.spruceui.navigation.NavigationDirection;
+import dev.lambdaurora.spruceui.util.IntFenwickTree;
 import dev.lambdaurora.spruceui.widget.AbstractSpruceWidget;
 import dev.lambdaurora.spruceui.widget.SpruceWidgetWithBorder;
 import dev.lambdaurora.spruceui.widget.WithBackground;
@@ -42,13 +43,13 @@ import java.util.List;
  *
  * @param <E> the type of entry
  * @author LambdAurora
- * @version 6.0.0
+ * @version 6.2.0
  * @since 2.0.0
  */
 public abstract class SpruceEntryListWidget<E extends SpruceEntryListWidget.Entry> extends AbstractSpruceParentWidget<E>
 		implements WithBackground, SpruceWidgetWithBorder {
 	protected final Position anchor = Position.of(this, 0, 0);
-	private final List<E> entries = new Entries();
+	private final Entries entries = new Entries();
 	private final int anchorYOffset;
 	private double scrollAmount;
 	private Background background = MenuBackground.MENU_LIST;
@@ -128,12 +129,33 @@ public abstract class SpruceEntryListWidget<E extends SpruceEntryListWidget.Entr
 		this.allowOutsideHorizontalNavigation = allowOutsideHorizontalNavigation;
 	}
 
+	/**
+	 * Returns the total height of the entries up to the given entry, inclusive.
+	 * <p>
+	 * The heights of the entries are indexed, so this is computed in {@code O(log n)}.
+	 *
+	 * @param index the index of the last entry
+	 * @return the total height of the entries in {@code [0, index]}
+	 */
 	protected int getLengthUntil(int index) {
-		int max = 0;
-		for (int i = 0; i <= index; i++) {
-			max += this.entries.get(i).getHeight();
+		return this.entries.heights.prefixSum(index + 1);
+	}
+
+	/**
+	 * Updates the indexed height of the given entry, and the positions of the following entries if it changed.
+	 * <p>
+	 * The heights of the entries are indexed when they are added, so that the positions and the scroll bounds
+	 * do not require measuring every entry. This must be called whenever the height of an entry changes afterward,
+	 * otherwise the entries keep their previous positions.
+	 *
+	 * @param index the index of the entry
+	 * @since 6.2.0
+	 */
+	public void invalidateEntryHeight(int index) {
+		if (this.entries.updateHeight(index)) {
+			// Entries moved by the height change may have entered or left the viewport.
+			this.setScrollAmount(this.getScrollAmount());
 		}
-		return max;
 	}
 
 	public int getMaxPosition() {
@@ -436,6 +458,10 @@ public abstract class SpruceEntryListWidget<E extends SpruceEntryListWidget.Entr
 	@Environment(EnvType.CLIENT)
 	class Entries extends AbstractList<E> {
 		private final List<E> entries;
+		/**
+		 * The heights of the entries, as of their last addition or height update.
+		 */
+		private final IntFenwickTree heights = new IntFenwickTree();
 
 		private Entries() {
 			this.entries = Lists.newArrayList();
@@ -451,28 +477,58 @@ public abstract class SpruceEntryListWidget<E extends SpruceEntryListWidget.Entr
 
 		public E set(int i, E entry) {
 			var entry2 = this.entries.set(i, entry);
-			this.recomputePositions();
+			this.heights.set(i, entry.getHeight());
+			this.recomputePositions(i);
 			SpruceEntryListWidget.this.setOwnerShip(entry);
 			return entry2;
 		}
 
 		public void add(int i, E entry) {
 			this.entries.add(i, entry);
-			this.recomputePositions();
+			this.heights.replace(i, i, new int[] {entry.getHeight()}, 0, 1);
+			this.recomputePositions(i);
 			SpruceEntryListWidget.this.setOwnerShip(entry);
 		}
 
 		public E remove(int i) {
 			var result = this.entries.remove(i);
-			this.recomputePositions();
+			this.heights.remove(i, i + 1);
+			this.recomputePositions(i);
 			return result;
 		}
 
-		private void recomputePositions() {
-			int y = 0;
-			for (var entry : this.entries) {
-				entry.getPosition().setRelativeY(y);
-				y += entry.getHeight();
+		@Override
+		public void clear() {
+			this.entries.clear();
+			this.heights.clear();
+		}
+
+		/**
+		 * Updates the indexed height of the given entry.
+		 *
+		 * @param i the index of the entry
+		 * @return {@code true} if the height changed, or {@code false} otherwise
+		 */
+		private boolean updateHeight(int i) {
+			int height = this.entries.get(i).getHeight();
+			if (this.heights.get(i) == height)
+				return false;
+
+			this.heights.set(i, height);
+			this.recomputePositions(i + 1);
+			return true;
+		}
+
+		/**
+		 * Positions the entries from the given index, the entries before it being already positioned.
+		 *
+		 * @param from the index of the first entry to position
+		 */
+		private void recomputePositions(int from) {
+			int y = this.heights.prefixSum(from);
+			for (int i = from; i < this.entries.size(); i++) {
+				this.entries.get(i).getPosition().setRelativeY(y);
+				y += this.heights.get(i);
 			}
 		}
 	}
@@ -22,7 +22,7 @@ import java.util.Optional;
  * Represents a parent widget.
  *
  * @author LambdAurora
- * @version 3.3.0
+ * @version 6.2.0
  * @since 2.0.4
  */
 public interface SpruceParentWidget<E extends SpruceWidget> extends SpruceWidget, Iterable<E> {
@@ -74,6 +74,16 @@ public interface SpruceParentWidget<E extends SpruceWidget> extends SpruceWidget
 		return Optional.of(element);
 	}
 
+	@Override
+	default void tick() {
+		this.children().forEach(SpruceWidget::tick);
+	}
+
+	@Override
+	default void removed() {
+		this.children().forEach(SpruceWidget::removed);
+	}
+
 	/* Navigation */
 
 	@Override
@@ -31,7 +31,7 @@ import java.util.List;
  * Represents a container widget with tabs.
  *
  * @author LambdAurora
- * @version 6.1.0
+ * @version 6.2.0
  * @since 2.0.0
  */
 public class SpruceTabbedWidget extends AbstractSpruceParentWidget<SpruceWidget> {
@@ -126,6 +126,16 @@ public class SpruceTabbedWidget extends AbstractSpruceParentWidget<SpruceWidget>
 		return List.of(this.list, this.list.getCurrentTab().container);
 	}
 
+	@Override
+	public void removed() {
+		// The containers of the other tabs are not children, but are discarded too.
+		this.list.removed();
+		for (var entry : this.list.children()) {
+			if (entry instanceof TabEntry tabEntry)
+				tabEntry.container.removed();
+		}
+	}
+
 	/* Navigation */
 
 	@Override
@@ -19,14 +19,16 @@ import dev.lambdaurora.spruceui.widget.AbstractSpruceWidget;
 import dev.lambdaurora.spruceui.widget.WithBackground;
 import dev.lambdaurora.spruceui.widget.WithBorder;
 import net.minecraft.client.gui.GuiGraphics;
+import net.minecraft.client.gui.screens.Screen;
 import net.minecraft.network.chat.Text;
 import org.jetbrains.annotations.Nullable;
+import org.lwjgl.glfw.GLFW;
 
 /**
  * Represents a text input widget.
  *
  * @author LambdAurora
- * @version 6.1.0
+ * @version 6.2.0
  * @since 2.1.0
  */
 public abstract class AbstractSpruceTextInputWidget extends AbstractSpruceWidget implements WithBackground, WithBorder {
@@ -37,6 +39,7 @@ public abstract class AbstractSpruceTextInputWidget extends AbstractSpruceWidget
 
 	private int editableColor = ColorUtil.TEXT_COLOR;
 	private int uneditableColor = ColorUtil.UNEDITABLE_COLOR;
+	private int maxLength = Integer.MAX_VALUE;
 
 	public AbstractSpruceTextInputWidget(Position position, int width, int height, Text title) {
 		this(position, width, height, title, null);
@@ -64,6 +67,65 @@ public abstract class AbstractSpruceTextInputWidget extends AbstractSpruceWidget
 	 */
 	public abstract void setText(String text);
 
+	/**
+	 * Returns the length of the text, without building the text.
+	 *
+	 * @return the length of the text
+	 * @since 6.2.0
+	 */
+	public int getTextLength() {
+		return this.getText().length();
+	}
+
+	/**
+	 * Returns the maximum length of the text.
+	 *
+	 * @return the maximum length of the text, {@link Integer#MAX_VALUE} if unlimited
+	 * @since 6.2.0
+	 */
+	public int getMaxLength() {
+		return this.maxLength;
+	}
+
+	/**
+	 * Sets the maximum length of the text, the current text is truncated if it is longer.
+	 * <p>
+	 * Written and pasted text which does not fit is truncated before being inserted.
+	 *
+	 * @param maxLength the maximum length of the text
+	 * @since 6.2.0
+	 */
+	public void setMaxLength(int maxLength) {
+		if (maxLength < 0)
+			throw new IllegalArgumentException("The maximum length cannot be negative.");
+
+		this.maxLength = maxLength;
+		if (this.getTextLength() > maxLength)
+			this.setText(this.getText());
+	}
+
+	/**
+	 * Truncates text about to be inserted so that the resulting text fits within the maximum length.
+	 * <p>
+	 * Only the part of the text which fits is copied, a surrogate pair is never split.
+	 *
+	 * @param text the inserted text
+	 * @param keptLength the length of the text which is kept around the insertion
+	 * @return the inserted text, truncated if needed
+	 * @since 6.2.0
+	 */
+	protected String truncateInsertion(String text, int keptLength) {
+		int available = this.maxLength - keptLength;
+		if (text.length() <= available)
+			return text;
+		if (available <= 0)
+			return "";
+
+		if (Character.isHighSurrogate(text.charAt(available - 1)))
+			available--;
+		return text.substring(0, available);
+	}
+
 	/**
 	 * Returns the title of this text input widget.
 	 *
@@ -193,6 +255,30 @@ public abstract class AbstractSpruceTextInputWidget extends AbstractSpruceWidget
 		return this.isActive() && this.isFocused();
 	}
 
+	/**
+	 * Returns whether the given key triggers an undo, which is {@code Ctrl + Z}.
+	 *
+	 * @param keyCode the key code
+	 * @return {@code true} if the key triggers an undo, or {@code false} otherwise
+	 * @since 6.2.0
+	 */
+	protected static boolean isUndo(int keyCode) {
+		return keyCode == GLFW.GLFW_KEY_Z && Screen.hasControlDown() && !Screen.hasShiftDown() && !Screen.hasAltDown();
+	}
+
+	/**
+	 * Returns whether the given key triggers a redo, which is {@code Ctrl + Y} or {@code Ctrl + Shift + Z}.
+	 *
+	 * @param keyCode the key code
+	 * @return {@code true} if the key triggers a redo, or {@code false} otherwise
+	 * @since 6.2.0
+	 */
+	protected static boolean isRedo(int keyCode) {
+		if (!Screen.hasControlDown() || Screen.hasAltDown())
+			return false;
+		return keyCode == GLFW.GLFW_KEY_Y && !Screen.hasShiftDown() || keyCode == GLFW.GLFW_KEY_Z && Screen.hasShiftDown();
+	}
+
 	/* Rendering */
 
 	@Override
@@ -0,0 +1,351 @@
+/*
+ * Copyright © 2024 LambdAurora <email@lambdaurora.dev>
+ *
+ * This file is part of SpruceUI.
+ *
+ * Licensed under the MIT license. For more information,
+ * see the LICENSE file.
+ */
+
+package dev.lambdaurora.spruceui.widget.text;
+
+import dev.lambdaurora.spruceui.Position;
+import dev.lambdaurora.spruceui.background.Background;
+import dev.lambdaurora.spruceui.background.SimpleColorBackground;
+import dev.lambdaurora.spruceui.border.Border;
+import dev.lambdaurora.spruceui.border.TexturedBorder;
+import dev.lambdaurora.spruceui.text.MappedTextFile;
+import dev.lambdaurora.spruceui.util.ColorUtil;
+import dev.lambdaurora.spruceui.util.MultilineText;
+import dev.lambdaurora.spruceui.widget.AbstractSpruceWidget;
+import dev.lambdaurora.spruceui.widget.WithBackground;
+import dev.lambdaurora.spruceui.widget.WithBorder;
+import net.minecraft.client.gui.GuiGraphics;
+import net.minecraft.client.gui.screens.Screen;
+import net.minecraft.network.chat.Text;
+import org.jetbrains.annotations.Nullable;
+import org.lwjgl.glfw.GLFW;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Represents a read-only viewer of large text files, such as logs.
+ * <p>
+ * The file is memory-mapped through a {@link MappedTextFile} instead of being read as a string,
+ * only the lines inside the viewport are decoded and wrapped, and the wrapped lines are kept in a small cache.
+ * The line index of the file is built progressively while rendering.
+ * <p>
+ * The viewer does not own the file, the caller stays responsible for closing it.
+ *
+ * @author LambdAurora
+ * @version 6.2.0
+ * @since 6.2.0
+ */
+public class SpruceLogViewerWidget extends AbstractSpruceWidget implements WithBackground, WithBorder {
+	/**
+	 * The number of bytes of the file indexed per frame.
+	 */
+	private static final long INDEX_BYTES_PER_FRAME = 4L * 1024 * 1024;
+	private static final int MIN_WRAPPED_LINES_CACHE_SIZE = 64;
+
+	private final Text title;
+	private Background background = new SimpleColorBackground(ColorUtil.BLACK);
+	private Border border = TexturedBorder.SIMPLE;
+	private int textColor = ColorUtil.TEXT_COLOR;
+	private @Nullable MappedTextFile file;
+	private int firstLine = 0;
+	private int firstLineRow = 0;
+	private final Map<Integer, List<String>> wrappedLines = new LinkedHashMap<>(16, .75f, true) {
+		@Override
+		protected boolean removeEldestEntry(Map.Entry<Integer, List<String>> eldest) {
+			return this.size() > Math.max(MIN_WRAPPED_LINES_CACHE_SIZE, SpruceLogViewerWidget.this.getDisplayedRows() * 2);
+		}
+	};
+	private int wrappedWidth;
+
+	public SpruceLogViewerWidget(Position position, int width, int height, Text title) {
+		super(position);
+		this.width = width;
+		this.height = height;
+		this.title = title;
+		this.wrappedWidth = this.getInnerWidth();
+	}
+
+	/**
+	 * Returns the title of this log viewer.
+	 *
+	 * @return the title
+	 */
+	public Text getTitle() {
+		return this.title;
+	}
+
+	/**
+	 * Returns the file displayed by this log viewer.
+	 *
+	 * @return the file if present, or {@code null} otherwise
+	 */
+	public @Nullable MappedTextFile getFile() {
+		return this.file;
+	}
+
+	/**
+	 * Sets the file displayed by this log viewer, and scrolls back to its start.
+	 * <p>
+	 * The previous file is not closed.
+	 *
+	 * @param file the file to display
+	 */
+	public void setFile(@Nullable MappedTextFile file) {
+		this.file = file;
+		this.wrappedLines.clear();
+		this.firstLine = 0;
+		this.firstLineRow = 0;
+	}
+
+	/**
+	 * Returns the text color.
+	 *
+	 * @return the text color
+	 */
+	public int getTextColor() {
+		return this.textColor;
+	}
+
+	/**
+	 * Sets the text color.
+	 *
+	 * @param textColor the text color
+	 */
+	public void setTextColor(int textColor) {
+		this.textColor = textColor;
+	}
+
+	@Override
+	public Background getBackground() {
+		return this.background;
+	}
+
+	@Override
+	public void setBackground(Background background) {
+		this.background = background;
+	}
+
+	@Override
+	public Border getBorder() {
+		return this.border;
+	}
+
+	@Override
+	public void setBorder(Border border) {
+		this.border = border;
+	}
+
+	/**
+	 * Returns the inner width of the log viewer.
+	 *
+	 * @return the inner width
+	 */
+	public int getInnerWidth() {
+		return this.getWidth() - 6 - this.getBorder().getThickness() * 2;
+	}
+
+	/**
+	 * Returns the inner height of the log viewer.
+	 *
+	 * @return the inner height
+	 */
+	public int getInnerHeight() {
+		return this.getHeight() - 6 - this.getBorder().getThickness() * 2;
+	}
+
+	/**
+	 * {@return the number of rows displayed at once}
+	 */
+	public int getDisplayedRows() {
+		return Math.max(1, this.getInnerHeight() / this.client.font.lineHeight);
+	}
+
+	/**
+	 * {@return the first displayed line of the file}
+	 */
+	public int getFirstLine() {
+		return this.firstLine;
+	}
+
+	/**
+	 * Scrolls to the given line of the file.
+	 *
+	 * @param line the line to scroll to
+	 */
+	public void scrollToLine(int line) {
+		if (this.file == null)
+			return;
+
+		line = Math.max(0, line);
+		if (!this.file.hasLine(line))
+			line = this.file.getIndexedLineCount() - 1;
+
+		this.firstLine = line;
+		this.firstLineRow = 0;
+	}
+
+	/**
+	 * Scrolls to the end of the file, which requires to index the whole file.
+	 */
+	public void scrollToEnd() {
+		if (this.file == null)
+			return;
+
+		this.firstLine = this.file.getLineCount() - 1;
+		this.firstLineRow = this.getWrappedLine(this.firstLine).size() - 1;
+		this.scrollRows(1 - this.getDisplayedRows());
+	}
+
+	/**
+	 * Scrolls by the given number of rows.
+	 *
+	 * @param rows the number of rows to scroll by, negative values scroll up
+	 */
+	public void scrollRows(int rows) {
+		if (this.file == null)
+			return;
+
+		for (; rows > 0; rows--) {
+			if (this.firstLineRow + 1 < this.getWrappedLine(this.firstLine).size()) {
+				this.firstLineRow++;
+			} else if (this.file.hasLine(this.firstLine + 1)) {
+				this.firstLine++;
+				this.firstLineRow = 0;
+			} else {
+				break;
+			}
+		}
+
+		for (; rows < 0; rows++) {
+			if (this.firstLineRow > 0) {
+				this.firstLineRow--;
+			} else if (this.firstLine > 0) {
+				this.firstLine--;
+				this.firstLineRow = this.getWrappedLine(this.firstLine).size() - 1;
+			} else {
+				break;
+			}
+		}
+	}
+
+	/**
+	 * Returns the rows of the given line wrapped to the inner width.
+	 *
+	 * @param line the line
+	 * @return the rows of the line
+	 */
+	private List<String> getWrappedLine(int line) {
+		int width = this.getInnerWidth();
+		if (width != this.wrappedWidth) {
+			this.wrappedLines.clear();
+			this.wrappedWidth = width;
+		}
+
+		var rows = this.wrappedLines.get(line);
+		if (rows == null) {
+			rows = MultilineText.wrapText(this.file.getLine(line), width).rows();
+			this.wrappedLines.put(line, rows);
+		}
+		return rows;
+	}
+
+	/* Input */
+
+	@Override
+	protected boolean onMouseClick(double mouseX, double mouseY, int button) {
+		if (button == 0) {
+			this.setFocused(true);
+			return true;
+		}
+		return false;
+	}
+
+	@Override
+	protected boolean onMouseScroll(double mouseX, double mouseY, double scrollX, double scrollY) {
+		// Horizontal scrolling is not supported.
+		if (this.file == null || scrollY == 0.)
+			return false;
+
+		this.scrollRows(scrollY > 0. ? -3 : 3);
+		return true;
+	}
+
+	@Override
+	protected boolean onKeyPress(int keyCode, int scanCode, int modifiers) {
+		if (!this.isActive() || !this.isFocused() || this.file == null)
+			return false;
+
+		switch (keyCode) {
+			case GLFW.GLFW_KEY_UP -> this.scrollRows(-1);
+			case GLFW.GLFW_KEY_DOWN -> this.scrollRows(1);
+			case GLFW.GLFW_KEY_PAGE_UP -> this.scrollRows(-this.getDisplayedRows());
+			case GLFW.GLFW_KEY_PAGE_DOWN -> this.scrollRows(this.getDisplayedRows());
+			case GLFW.GLFW_KEY_HOME -> this.scrollToLine(0);
+			case GLFW.GLFW_KEY_END -> this.scrollToEnd();
+			default -> {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/* Rendering */
+
+	@Override
+	protected void renderWidget(GuiGraphics graphics, int mouseX, int mouseY, float delta) {
+		this.getBorder().render(graphics, this, mouseX, mouseY, delta);
+
+		if (this.file == null)
+			return;
+
+		if (!this.file.isFullyIndexed())
+			this.file.index(INDEX_BYTES_PER_FRAME);
+
+		this.drawText(graphics);
+	}
+
+	/**
+	 * Draws the visible rows of the file.
+	 *
+	 * @param graphics the GUI graphics instance to render with
+	 */
+	protected void drawText(GuiGraphics graphics) {
+		int displayedRows = this.getDisplayedRows();
+		int textX = this.getX() + 4;
+		int rowY = this.getY() + 4;
+
+		int line = this.firstLine;
+		int row = this.firstLineRow;
+		for (int i = 0; i < displayedRows && this.file.hasLine(line); i++) {
+			var rows = this.getWrappedLine(line);
+			if (row < rows.size())
+				graphics.drawShadowedText(this.client.font, rows.get(row), textX, rowY, this.textColor);
+
+			rowY += this.client.font.lineHeight;
+			if (++row >= rows.size()) {
+				line++;
+				row = 0;
+			}
+		}
+	}
+
+	@Override
+	protected void renderBackground(GuiGraphics graphics, int mouseX, int mouseY, float delta) {
+		this.getBackground().render(graphics, this, 0, mouseX, mouseY, delta);
+	}
+
+	/* Narration */
+
+	@Override
+	protected Text getNarrationMessage() {
+		return this.getTitle();
+	}
+}
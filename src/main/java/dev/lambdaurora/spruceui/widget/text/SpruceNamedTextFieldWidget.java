@@ -27,7 +27,7 @@ import java.util.function.Predicate;
  * Represents a text field widget with a title on top.
  *
  * @author LambdAurora
- * @version 5.0.0
+ * @version 6.2.0
  * @since 2.1.0
  */
 public class SpruceNamedTextFieldWidget extends AbstractSpruceWidget implements WithBackground, WithBorder {
@@ -77,6 +77,16 @@ public class SpruceNamedTextFieldWidget extends AbstractSpruceWidget implements
 		this.getTextFieldWidget().setFocused(focused);
 	}
 
+	@Override
+	public void tick() {
+		this.getTextFieldWidget().tick();
+	}
+
+	@Override
+	public void removed() {
+		this.getTextFieldWidget().removed();
+	}
+
 	public String getText() {
 		return this.getTextFieldWidget().getText();
 	}
@@ -93,6 +103,25 @@ public class SpruceNamedTextFieldWidget extends AbstractSpruceWidget implements
 		this.getTextFieldWidget().setChangedListener(changedListener);
 	}
 
+	/**
+	 * {@return the policy deciding when edits are committed to the changed listener}
+	 *
+	 * @since 6.2.0
+	 */
+	public TextCommitPolicy getCommitPolicy() {
+		return this.getTextFieldWidget().getCommitPolicy();
+	}
+
+	/**
+	 * Sets the policy deciding when edits are committed to the changed listener.
+	 *
+	 * @param commitPolicy the commit policy
+	 * @since 6.2.0
+	 */
+	public void setCommitPolicy(TextCommitPolicy commitPolicy) {
+		this.getTextFieldWidget().setCommitPolicy(commitPolicy);
+	}
+
 	public Predicate<String> getTextPredicate() {
 		return this.getTextFieldWidget().getTextPredicate();
 	}
@@ -109,6 +138,15 @@ public class SpruceNamedTextFieldWidget extends AbstractSpruceWidget implements
 		this.getTextFieldWidget().setRenderTextProvider(renderTextProvider);
 	}
 
+	/**
+	 * Discards the cached output of the render text provider, so that it is called again on the next frame.
+	 *
+	 * @since 6.2.0
+	 */
+	public void refreshRenderedText() {
+		this.getTextFieldWidget().refreshRenderedText();
+	}
+
 	/**
 	 * Returns the color for editable text.
 	 *
@@ -9,38 +9,146 @@
 
 package dev.lambdaurora.spruceui.widget.text;
 
+import com.mojang.logging.LogUtils;
 import dev.lambdaurora.spruceui.Position;
 import dev.lambdaurora.spruceui.border.Border;
 import dev.lambdaurora.spruceui.navigation.NavigationDirection;
+import dev.lambdaurora.spruceui.text.Diagnostic;
+import dev.lambdaurora.spruceui.text.DiagnosticProvider;
+import dev.lambdaurora.spruceui.text.DiagnosticSet;
+import dev.lambdaurora.spruceui.text.GlyphAdvanceCache;
+import dev.lambdaurora.spruceui.text.HighlightedLine;
+import dev.lambdaurora.spruceui.text.SyntaxHighlightCache;
+import dev.lambdaurora.spruceui.text.SyntaxHighlighter;
+import dev.lambdaurora.spruceui.text.TextAdvances;
+import dev.lambdaurora.spruceui.text.TextDocument;
+import dev.lambdaurora.spruceui.text.TextEditHistory;
+import dev.lambdaurora.spruceui.text.TextMatchIndex;
 import dev.lambdaurora.spruceui.util.ColorUtil;
 import dev.lambdaurora.spruceui.util.MultilineText;
+import it.unimi.dsi.fastutil.ints.IntArrayList;
+import net.minecraft.Util;
 import net.minecraft.client.gui.Font;
 import net.minecraft.client.gui.GuiGraphics;
 import net.minecraft.client.gui.screens.Screen;
 import net.minecraft.client.renderer.RenderType;
 import net.minecraft.network.chat.Text;
+import net.minecraft.util.FormattedCharSequence;
 import net.minecraft.util.StringUtil;
 import net.minecraft.util.math.MathHelper;
 import org.jetbrains.annotations.Nullable;
 import org.lwjgl.glfw.GLFW;
+import org.slf4j.Logger;
 
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
 import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.function.Consumer;
 
 /**
  * Represents a text area widget.
+ * <p>
+ * Additional cursors can be placed with {@code Alt} + click, edits made with several cursors are applied
+ * to the wrapped rows as a single batch and recorded as a single edit in the history.
+ * <p>
+ * A {@link DiagnosticProvider} can validate the text in the background, the reported diagnostics are underlined.
  *
  * @author LambdAurora
- * @version 6.1.0
+ * @version 6.2.0
  * @since 1.6.3
  */
 public class SpruceTextAreaWidget extends AbstractSpruceTextInputWidget {
+	private static final Logger LOGGER = LogUtils.getLogger();
+	/**
+	 * The maximum number of stale lines re-wrapped per frame after a width change, in addition to the visible ones.
+	 */
+	private static final int STALE_LINES_PER_FRAME = 256;
+	/**
+	 * The number of characters read for the first chunk of a load, kept small so the first rows show up quickly.
+	 */
+	private static final int LOAD_FIRST_CHUNK_SIZE = 4096;
+	private static final int LOAD_CHUNK_SIZE = 64 * 1024;
+	/**
+	 * The time spent applying loaded chunks per frame, in nanoseconds.
+	 */
+	private static final long LOAD_TIME_PER_FRAME = 2_000_000L;
+	/**
+	 * The maximum number of lines tokenized per frame for syntax highlighting.
+	 */
+	private static final int HIGHLIGHT_LINES_PER_FRAME = 1024;
+	private static final int MATCH_HIGHLIGHT_COLOR = 0x80ffcc00;
+	private static final int FIND_BAR_COLOR = 0xe0202020;
+	/**
+	 * The space between the line numbers and the text.
+	 */
+	private static final int GUTTER_PADDING = 4;
+	private static final int LINE_NUMBER_COLOR = 0xff808080;
+	/**
+	 * The number of rows laid out above and below the viewport, so that the rows entering it while scrolling are ready.
+	 */
+	private static final int OVERSCAN_ROWS = 4;
+	/**
+	 * The number of rows scrolled per mouse wheel step.
+	 */
+	private static final int SCROLL_ROWS = 3;
+	/**
+	 * The time constant of the smooth scrolling in milliseconds, after which about two thirds of the distance got scrolled.
+	 */
+	private static final double SCROLL_SMOOTHING_TIME = 50.;
+
 	private final Font font;
+	private final TextDocument document = new TextDocument();
+	private final TextEditHistory history = new TextEditHistory();
+	private final TextMatchIndex matches = new TextMatchIndex();
 	private final MultilineText lines;
 	private final Cursor cursor = new Cursor(true);
 	private final Selection selection = new Selection();
+	/**
+	 * The additional cursors, which do not have a selection.
+	 */
+	private final List<Cursor> extraCursors = new ArrayList<>();
+	/**
+	 * The first row of the viewport, which may be partially scrolled out of view.
+	 */
 	private int firstLine = 0;
+	/**
+	 * The part of the first row scrolled out of view, in pixels.
+	 */
+	private double scrollOffset = 0.;
+	/**
+	 * The scroll position the smooth scrolling is heading to, in pixels from the top of the text.
+	 */
+	private double scrollTarget = 0.;
+	private long lastScrollTime = 0L;
 	private int displayedLines;
+	private RenderedRow[] renderedRows = new RenderedRow[0];
+	private @Nullable Loading loading;
+	private @Nullable FindBar findBar;
+	private @Nullable SyntaxHighlightCache highlighting;
+	private @Nullable DiagnosticProvider diagnosticProvider;
+	private DiagnosticSet diagnostics = DiagnosticSet.EMPTY;
+	private @Nullable CompletableFuture<@Nullable DiagnosticSet> validation;
+	/**
+	 * The edits made since the running validation started, as offset, removed length and inserted length triples.
+	 */
+	private final IntArrayList validationEdits = new IntArrayList();
+	/**
+	 * The version of the last document snapshot given to the diagnostic provider.
+	 */
+	private int validatedVersion = -1;
+	private boolean lineNumbers = false;
+	private int gutterDigits = 0;
+	private int gutterWidth = 0;
 
 	public SpruceTextAreaWidget(Position position, int width, int height, Text title) {
 		this(position, width, height, title, null);
@@ -64,35 +172,589 @@ public class SpruceTextAreaWidget extends AbstractSpruceTextInputWidget {
 		return this.lines.getLines();
 	}
 
+	/**
+	 * Returns a view of the given logical line which does not copy the text, valid until the text is modified.
+	 *
+	 * @param line the logical line
+	 * @return the view of the line, without its line break
+	 * @since 6.2.0
+	 */
+	public CharSequence getLineView(int line) {
+		return this.lines.getLineView(line);
+	}
+
+	/**
+	 * Returns a view of the given displayed row which does not copy the text, valid until the text is modified.
+	 *
+	 * @param row the row
+	 * @return the view of the row, without its line break
+	 * @since 6.2.0
+	 */
+	public CharSequence getRowView(int row) {
+		return this.lines.getRowView(row);
+	}
+
+	/**
+	 * Returns an immutable view of the whole text which does not copy the characters.
+	 * <p>
+	 * Unlike {@link #getText()}, which builds a new string for each version of the text,
+	 * this only copies the piece list of the document once per version.
+	 *
+	 * @return the view of the text
+	 * @since 6.2.0
+	 */
+	public CharSequence getTextView() {
+		return this.document.snapshot();
+	}
+
 	/**
 	 * Sets the lines.
 	 *
 	 * @param lines the lines
 	 */
 	public void setLines(List<String> lines) {
-		this.lines.setLines(lines);
+		this.setText(String.join("\n", lines));
 		this.selection.active = false;
 		this.setCursorToEnd();
 	}
 
 	@Override
 	public String getText() {
-		return this.lines.getText();
+		return this.document.toString();
+	}
+
+	@Override
+	public int getTextLength() {
+		return this.document.length();
 	}
 
 	@Override
 	public void setText(@Nullable String text) {
-		this.lines.clear();
-		if (text != null)
-			this.lines.setText(text);
+		this.cancelLoading();
+		this.document.setText(text == null ? "" : this.truncateInsertion(text, 0));
+		this.lines.setText(this.document.toString());
+		this.history.clear();
+		this.matches.rebuild(this.document);
+		this.extraCursors.clear();
+		this.resetDiagnostics();
+		this.resetHighlighting();
+		this.sanitize();
 	}
 
 	/**
 	 * Clears the text area.
 	 */
 	public void clear() {
+		this.cancelLoading();
+		this.document.clear();
 		this.lines.clear();
+		this.history.clear();
+		this.matches.clear();
+		this.extraCursors.clear();
+		this.resetDiagnostics();
+		this.sanitize();
+		this.resetHighlighting();
+	}
+
+	/**
+	 * Undoes the last edit.
+	 *
+	 * @return {@code true} if an edit has been undone, or {@code false} otherwise
+	 */
+	public boolean undo() {
+		var edits = this.history.undo();
+		if (edits == null)
+			return false;
+
+		this.selection.cancel();
+		if (edits.size() == 1) {
+			var edit = edits.get(0);
+			this.applyReplacement(edit.offset(), edit.offset() + edit.inserted().length(), edit.removed());
+		} else {
+			var starts = new int[edits.size()];
+			var ends = new int[edits.size()];
+			var texts = new String[edits.size()];
+			for (int i = 0; i < texts.length; i++) {
+				var edit = edits.get(i);
+				starts[i] = edit.offset();
+				ends[i] = edit.offset() + edit.inserted().length();
+				texts[i] = edit.removed();
+			}
+			this.applyReplacements(starts, ends, texts, 0);
+		}
+		this.sanitize();
+		return true;
+	}
+
+	/**
+	 * Redoes the last undone edit.
+	 *
+	 * @return {@code true} if an edit has been redone, or {@code false} otherwise
+	 */
+	public boolean redo() {
+		var edits = this.history.redo();
+		if (edits == null)
+			return false;
+
+		this.selection.cancel();
+		if (edits.size() == 1) {
+			var edit = edits.get(0);
+			this.applyReplacement(edit.offset(), edit.offset() + edit.removed().length(), edit.inserted());
+		} else {
+			var starts = new int[edits.size()];
+			var ends = new int[edits.size()];
+			var texts = new String[edits.size()];
+			for (int i = 0; i < texts.length; i++) {
+				var edit = edits.get(i);
+				starts[i] = edit.offset();
+				ends[i] = edit.offset() + edit.removed().length();
+				texts[i] = edit.inserted();
+			}
+			this.applyReplacements(starts, ends, texts, 0);
+		}
 		this.sanitize();
+		return true;
+	}
+
+	/**
+	 * Loads the content of the given file as UTF-8 into this text area, replacing the current text.
+	 *
+	 * @param path the path of the file to load
+	 * @return a future completed once the whole file is loaded
+	 * @see #load(Reader)
+	 * @since 6.2.0
+	 */
+	public CompletableFuture<Void> load(Path path) {
+		return this.startLoading(() -> Files.newBufferedReader(path, StandardCharsets.UTF_8));
+	}
+
+	/**
+	 * Loads the content of the given reader into this text area, replacing the current text.
+	 * <p>
+	 * The reader is read and the text is wrapped in chunks on a background thread,
+	 * the wrapped rows are then appended to the text area over the next frames, the first rows showing up almost immediately.
+	 * Setting the text or starting another load cancels the load, the reader is closed once the load ends.
+	 *
+	 * @param reader the reader to load the text from
+	 * @return a future completed once the whole text is loaded, which can be cancelled to stop the load
+	 * @since 6.2.0
+	 */
+	public CompletableFuture<Void> load(Reader reader) {
+		return this.startLoading(() -> reader);
+	}
+
+	/**
+	 * {@return {@code true} if text is being loaded into this text area, or {@code false} otherwise}
+	 *
+	 * @since 6.2.0
+	 */
+	public boolean isLoading() {
+		return this.loading != null;
+	}
+
+	/**
+	 * {@return the syntax highlighter of this text area, or {@code null} if the text is not highlighted}
+	 *
+	 * @since 6.2.0
+	 */
+	public @Nullable SyntaxHighlighter getSyntaxHighlighter() {
+		return this.highlighting == null ? null : this.highlighting.getHighlighter();
+	}
+
+	/**
+	 * Sets the syntax highlighter of this text area.
+	 * <p>
+	 * The lines are tokenized progressively while rendering, and only the edited lines are tokenized again
+	 * along with the following lines whose lexer state changed.
+	 *
+	 * @param highlighter the syntax highlighter, or {@code null} to not highlight the text
+	 * @since 6.2.0
+	 */
+	public void setSyntaxHighlighter(@Nullable SyntaxHighlighter highlighter) {
+		this.highlighting = highlighter == null ? null : new SyntaxHighlightCache(highlighter);
+		this.resetHighlighting();
+	}
+
+	private void resetHighlighting() {
+		if (this.highlighting != null)
+			this.highlighting.reset(this.lines.getLineCount());
+	}
+
+	/**
+	 * {@return the provider of the diagnostics of the text, or {@code null} if there is none}
+	 *
+	 * @since 6.2.0
+	 */
+	public @Nullable DiagnosticProvider getDiagnosticProvider() {
+		return this.diagnosticProvider;
+	}
+
+	/**
+	 * Sets the provider of the diagnostics of the text.
+	 * <p>
+	 * The provider is given immutable snapshots of the text on a background thread, at most one at a time.
+	 * The diagnostics are shifted through the edits made since the snapshot they are reported for,
+	 * so they stay on the same text until the provider reports the diagnostics of a newer version.
+	 *
+	 * @param provider the diagnostic provider, or {@code null} to remove diagnostics
+	 * @since 6.2.0
+	 */
+	public void setDiagnosticProvider(@Nullable DiagnosticProvider provider) {
+		this.diagnosticProvider = provider;
+		this.resetDiagnostics();
+		this.validatedVersion = -1;
+	}
+
+	/**
+	 * {@return the diagnostics last reported by the diagnostic provider, shifted through the edits made since}
+	 *
+	 * @since 6.2.0
+	 */
+	public List<Diagnostic> getDiagnostics() {
+		return this.diagnostics.getDiagnostics();
+	}
+
+	/**
+	 * Collects the result of the running validation if it is done, and validates the text again if it changed since.
+	 */
+	private void updateDiagnostics() {
+		var provider = this.diagnosticProvider;
+		if (provider == null)
+			return;
+
+		if (this.validation != null) {
+			if (!this.validation.isDone())
+				return;
+
+			var result = this.validation.isCancelled() ? null : this.validation.getNow(null);
+			this.validation = null;
+			if (result != null) {
+				// The diagnostics are reported for the snapshot, the edits made since shift them onto the current text.
+				int version = this.document.getVersion();
+				for (int i = 0; i < this.validationEdits.size(); i += 3) {
+					result = result.update(version, this.validationEdits.getInt(i),
+							this.validationEdits.getInt(i + 1), this.validationEdits.getInt(i + 2));
+				}
+				this.diagnostics = result;
+			}
+			this.validationEdits.clear();
+		}
+
+		if (this.validatedVersion != this.document.getVersion()) {
+			var snapshot = this.document.snapshot();
+			this.validatedVersion = snapshot.getVersion();
+			this.validation = CompletableFuture.supplyAsync(() -> DiagnosticSet.of(snapshot.getVersion(), provider.validate(snapshot)),
+							Util.backgroundExecutor())
+					.exceptionally(e -> {
+						LOGGER.error("Failed to validate the text of a text area.", e);
+						return null;
+					});
+		}
+	}
+
+	/**
+	 * Shifts the diagnostics through an edit of the document.
+	 *
+	 * @param offset the offset of the edit
+	 * @param removedLength the length of the removed text
+	 * @param insertedLength the length of the inserted text
+	 */
+	private void shiftDiagnostics(int offset, int removedLength, int insertedLength) {
+		this.diagnostics = this.diagnostics.update(this.document.getVersion(), offset, removedLength, insertedLength);
+		if (this.validation != null) {
+			this.validationEdits.add(offset);
+			this.validationEdits.add(removedLength);
+			this.validationEdits.add(insertedLength);
+		}
+	}
+
+	/**
+	 * Clears the diagnostics as the whole text is replaced, the running validation is discarded.
+	 */
+	private void resetDiagnostics() {
+		this.diagnostics = DiagnosticSet.EMPTY;
+		if (this.validation != null)
+			this.validation.cancel(false);
+	}
+
+	/**
+	 * Returns the text of the given logical line.
+	 *
+	 * @param line the logical line
+	 * @return the text of the line, without its line break
+	 */
+	private String getLogicalLine(int line) {
+		int start = this.lines.getOffset(this.lines.getLineStartRow(line), 0);
+		int endRow = this.lines.getLineEndRow(line) - 1;
+		int end = this.lines.getOffset(endRow, 0) + this.lines.get(endRow).length();
+		if (end > start && this.document.charAt(end - 1) == '\n')
+			end--;
+		return this.document.subSequence(start, end);
+	}
+
+	/**
+	 * {@return {@code true} if the find bar is open, or {@code false} otherwise}
+	 *
+	 * @since 6.2.0
+	 */
+	public boolean isFinding() {
+		return this.findBar != null;
+	}
+
+	/**
+	 * Opens the find bar, searching for the selected text if it fits on a single line.
+	 *
+	 * @since 6.2.0
+	 */
+	public void openFind() {
+		if (this.findBar == null) {
+			this.findBar = new FindBar();
+			// The find bar takes the last displayed row, the cursor may be hidden under it.
+			this.cursor.adjustFirstLine();
+		}
+
+		var selected = this.selection.getSelectedText();
+		if (!selected.isEmpty() && selected.indexOf('\n') == -1) {
+			this.findBar.query = selected;
+			this.setFindQuery(selected, true);
+		}
+	}
+
+	/**
+	 * Closes the find bar and stops searching.
+	 *
+	 * @since 6.2.0
+	 */
+	public void closeFind() {
+		this.findBar = null;
+		this.setFindQuery("", false);
+	}
+
+	/**
+	 * Sets the searched text, the occurrences of which are highlighted.
+	 *
+	 * @param query the searched text, or an empty string to stop searching
+	 * @param ignoreCase {@code true} if the search ignores the case, or {@code false} otherwise
+	 * @since 6.2.0
+	 */
+	public void setFindQuery(String query, boolean ignoreCase) {
+		this.matches.setQuery(query, ignoreCase, this.document);
+	}
+
+	/**
+	 * {@return the number of occurrences of the searched text}
+	 *
+	 * @since 6.2.0
+	 */
+	public int getMatchCount() {
+		return this.matches.size();
+	}
+
+	/**
+	 * Selects the next occurrence of the searched text after the cursor, wrapping around to the start of the text.
+	 *
+	 * @return {@code true} if an occurrence has been selected, or {@code false} if there is none
+	 * @since 6.2.0
+	 */
+	public boolean findNext() {
+		if (this.matches.isEmpty())
+			return false;
+
+		int from = this.selection.active ? this.selection.getEnd().getPosition() : this.cursor.getPosition();
+		int index = this.matches.firstStartingAtOrAfter(from);
+		this.selectMatch(index == this.matches.size() ? 0 : index);
+		return true;
+	}
+
+	/**
+	 * Selects the previous occurrence of the searched text before the cursor, wrapping around to the end of the text.
+	 *
+	 * @return {@code true} if an occurrence has been selected, or {@code false} if there is none
+	 * @since 6.2.0
+	 */
+	public boolean findPrevious() {
+		if (this.matches.isEmpty())
+			return false;
+
+		int from = this.selection.active ? this.selection.getStart().getPosition() : this.cursor.getPosition();
+		int index = this.matches.firstStartingAtOrAfter(from) - 1;
+		this.selectMatch(index < 0 ? this.matches.size() - 1 : index);
+		return true;
+	}
+
+	/**
+	 * Replaces the selected occurrence of the searched text, and selects the next one.
+	 *
+	 * @param replacement the replacement text
+	 * @return {@code true} if an occurrence has been replaced, or {@code false} otherwise
+	 * @since 6.2.0
+	 */
+	public boolean replaceMatch(String replacement) {
+		int index = this.getSelectedMatch();
+		if (index == -1) {
+			this.findNext();
+			return false;
+		}
+
+		this.selection.cancel();
+		this.replaceText(this.matches.getStart(index), this.matches.getEnd(index), replacement);
+		this.sanitize();
+		this.findNext();
+		return true;
+	}
+
+	/**
+	 * Replaces all the occurrences of the searched text as a single edit.
+	 *
+	 * @param replacement the replacement text
+	 * @return the number of replaced occurrences
+	 * @since 6.2.0
+	 */
+	public int replaceAll(String replacement) {
+		int count = this.matches.size();
+		if (count == 0)
+			return 0;
+
+		long newLength = this.document.length() + (long) count * (replacement.length() - this.matches.getQuery().length());
+		if (newLength > this.getMaxLength())
+			return 0;
+
+		int start = this.matches.getStart(0);
+		int end = this.matches.getEnd(count - 1);
+		var builder = new StringBuilder(end - start + count * (replacement.length() - this.matches.getQuery().length()));
+		int position = start;
+		for (int i = 0; i < count; i++) {
+			this.document.appendTo(builder, position, this.matches.getStart(i));
+			builder.append(replacement);
+			position = this.matches.getEnd(i);
+		}
+
+		this.selection.cancel();
+		this.replaceText(start, end, builder.toString());
+		this.sanitize();
+		return count;
+	}
+
+	/**
+	 * {@return the index of the occurrence of the searched text which is exactly selected, or {@code -1} if there is none}
+	 */
+	private int getSelectedMatch() {
+		if (!this.selection.active || this.matches.isEmpty())
+			return -1;
+
+		int start = this.selection.getStart().getPosition();
+		int index = this.matches.firstStartingAtOrAfter(start);
+		if (index < this.matches.size() && this.matches.getStart(index) == start
+				&& this.matches.getEnd(index) == this.selection.getEnd().getPosition())
+			return index;
+		return -1;
+	}
+
+	private void selectMatch(int index) {
+		this.history.breakCoalescing();
+		this.extraCursors.clear();
+		this.selection.anchor.setPosition(this.matches.getStart(index));
+		this.cursor.setPosition(this.matches.getEnd(index));
+		this.selection.follower.copy(this.cursor);
+		this.selection.active = true;
+	}
+
+	private CompletableFuture<Void> startLoading(Callable<Reader> readerOpener) {
+		this.setText("");
+
+		var loading = new Loading(this.lines.isWordWrap());
+		int maxLength = this.getMaxLength();
+		int width = this.lines.getWidth();
+		this.loading = loading;
+
+		CompletableFuture.runAsync(() -> {
+			try (var reader = readerOpener.call()) {
+				var buffer = new char[LOAD_CHUNK_SIZE];
+				var pending = new StringBuilder();
+				int chunkSize = LOAD_FIRST_CHUNK_SIZE;
+				// The characters which can still be read without exceeding the maximum length.
+				int remaining = maxLength;
+				int read;
+
+				while (!loading.future.isDone() && remaining > 0
+						&& (read = reader.read(buffer, 0, Math.min(chunkSize, remaining))) != -1) {
+					remaining -= read;
+					pending.append(buffer, 0, read);
+					chunkSize = LOAD_CHUNK_SIZE;
+
+					// The pending text has no line break before the read characters, so only these are searched.
+					int lastBreak = read - 1;
+					while (lastBreak >= 0 && buffer[lastBreak] != '\n')
+						lastBreak--;
+
+					// Only publish complete lines, unless a single line gets too long.
+					if (lastBreak < 0) {
+						if (pending.length() >= LOAD_CHUNK_SIZE)
+							pending.delete(0, loading.publishPart(pending.toString(), width));
+						continue;
+					}
+
+					int end = pending.length() - read + lastBreak + 1;
+					loading.publish(pending.substring(0, end), width);
+					pending.delete(0, end);
+				}
+
+				if (!pending.isEmpty())
+					loading.publish(pending.toString(), width);
+				loading.finished = true;
+			} catch (Exception e) {
+				loading.future.completeExceptionally(e);
+			}
+		}, Util.backgroundExecutor());
+
+		return loading.future;
+	}
+
+	private void cancelLoading() {
+		if (this.loading != null) {
+			this.loading.future.cancel(false);
+			this.loading = null;
+		}
+	}
+
+	/**
+	 * Appends the chunks wrapped by the current load, within the time allowed per frame.
+	 */
+	private void applyLoadedChunks() {
+		var loading = this.loading;
+		if (loading == null)
+			return;
+
+		if (loading.future.isDone()) {
+			// The load failed or got cancelled.
+			this.loading = null;
+			return;
+		}
+
+		if (!loading.chunks.isEmpty()) {
+			long deadline = System.nanoTime() + LOAD_TIME_PER_FRAME;
+			this.keepPositions(() -> {
+				MultilineText.WrappedText chunk;
+				while ((chunk = loading.chunks.poll()) != null) {
+					int offset = this.document.length();
+					int lastLine = this.lines.getLineCount() - 1;
+					this.document.insert(offset, chunk.text());
+					this.lines.append(chunk);
+					this.matches.update(this.document, offset, 0, chunk.text().length());
+					this.shiftDiagnostics(offset, 0, chunk.text().length());
+					if (this.highlighting != null)
+						this.highlighting.replaceLines(lastLine, lastLine + 1, this.lines.getLineCount() - lastLine);
+
+					if (System.nanoTime() >= deadline)
+						break;
+				}
+			});
+		}
+
+		if (loading.finished && loading.chunks.isEmpty()) {
+			this.loading = null;
+			loading.future.complete(null);
+		}
 	}
 
 	/**
@@ -127,10 +789,85 @@ public class SpruceTextAreaWidget extends AbstractSpruceTextInputWidget {
 		this.cursor.adjustFirstLine();
 	}
 
+	/**
+	 * {@return {@code true} if rows are broken at word boundaries, or {@code false} if they are broken at any character}
+	 *
+	 * @since 6.2.0
+	 */
+	public boolean isWordWrap() {
+		return this.lines.isWordWrap();
+	}
+
+	/**
+	 * Sets whether rows are broken at word boundaries or at any character.
+	 *
+	 * @param wordWrap {@code true} to break rows at word boundaries, or {@code false} to break them at any character
+	 * @since 6.2.0
+	 */
+	public void setWordWrap(boolean wordWrap) {
+		this.keepPositions(() -> this.lines.setWordWrap(wordWrap));
+		if (this.loading != null)
+			this.loading.wordWrap = wordWrap;
+	}
+
+	/**
+	 * {@return {@code true} if the line numbers are displayed in a gutter, or {@code false} otherwise}
+	 *
+	 * @since 6.2.0
+	 */
+	public boolean hasLineNumbers() {
+		return this.lineNumbers;
+	}
+
+	/**
+	 * Sets whether the numbers of the logical lines are displayed in a gutter on the left of the text.
+	 *
+	 * @param lineNumbers {@code true} to display the line numbers, or {@code false} otherwise
+	 * @since 6.2.0
+	 */
+	public void setLineNumbers(boolean lineNumbers) {
+		this.lineNumbers = lineNumbers;
+		this.updateGutter();
+	}
+
+	/**
+	 * Updates the width of the line number gutter, which only changes with the number of digits of the line count.
+	 */
+	private void updateGutter() {
+		int digits = 0;
+		if (this.lineNumbers) {
+			digits = 1;
+			for (int lineCount = this.lines.getLineCount(); lineCount >= 10; lineCount /= 10)
+				digits++;
+		}
+
+		if (digits == this.gutterDigits)
+			return;
+
+		this.gutterDigits = digits;
+		this.gutterWidth = digits == 0 ? 0 : digits * GlyphAdvanceCache.width("0") + GUTTER_PADDING;
+		this.lines.setWidth(this.getTextWidth(), true);
+		this.sanitize();
+	}
+
+	/**
+	 * {@return the X coordinate of the start of the text, after the line number gutter}
+	 */
+	protected int getTextX() {
+		return this.getX() + 4 + this.gutterWidth;
+	}
+
+	/**
+	 * {@return the width available to the text, without the line number gutter}
+	 */
+	protected int getTextWidth() {
+		return this.getInnerWidth() - this.gutterWidth;
+	}
+
 	@Override
 	public void setBorder(Border border) {
 		super.setBorder(border);
-		this.lines.setWidth(this.getInnerWidth());
+		this.lines.setWidth(this.getTextWidth(), true);
 		this.sanitize();
 	}
 
@@ -144,108 +881,276 @@ public class SpruceTextAreaWidget extends AbstractSpruceTextInputWidget {
 		this.cursor.toEnd();
 	}
 
-	private void insertCharacter(char character) {
-		if (this.lines.isEmpty()) {
-			this.lines.add(String.valueOf(character));
-			this.setCursorToStart();
+	/**
+	 * {@return the number of cursors, including the main one}
+	 *
+	 * @since 6.2.0
+	 */
+	public int getCursorCount() {
+		return this.extraCursors.size() + 1;
+	}
+
+	/**
+	 * Adds an additional cursor at the given position in the text.
+	 *
+	 * @param position the position of the new cursor
+	 * @return {@code true} if the cursor has been added, or {@code false} if there is already a cursor at this position
+	 * @since 6.2.0
+	 */
+	public boolean addCursor(int position) {
+		position = MathHelper.clamp(position, 0, this.document.length());
+		if (position == this.cursor.getPosition())
+			return false;
+
+		for (var extra : this.extraCursors) {
+			if (position == extra.getPosition())
+				return false;
+		}
+
+		var added = new Cursor(false);
+		added.setPosition(position);
+		this.extraCursors.add(added);
+		return true;
+	}
+
+	/**
+	 * Removes the additional cursors, only the main cursor is kept.
+	 *
+	 * @since 6.2.0
+	 */
+	public void clearCursors() {
+		this.extraCursors.clear();
+	}
+
+	/**
+	 * Replaces a range of text and records the edit in the history.
+	 *
+	 * @param start the start offset of the replaced range, inclusive
+	 * @param end the end offset of the replaced range, exclusive
+	 * @param text the replacement text
+	 * @see #applyReplacement(int, int, String)
+	 */
+	private void replaceText(int start, int end, String text) {
+		text = this.truncateInsertion(text, this.document.length() - (end - start));
+		if (text.isEmpty() && start == end)
 			return;
+
+		this.history.record(start, this.document.subSequence(start, end), text);
+		this.applyReplacement(start, end, text);
+	}
+
+	/**
+	 * Replaces a range of text, keeping the document and the wrapped rows in sync, and moves the cursor after the replacement.
+	 * <p>
+	 * The additional cursors are removed.
+	 *
+	 * @param start the start offset of the replaced range, inclusive
+	 * @param end the end offset of the replaced range, exclusive
+	 * @param text the replacement text
+	 */
+	private void applyReplacement(int start, int end, String text) {
+		this.extraCursors.clear();
+
+		int editedLine = 0;
+		int lastEditedLine = 0;
+		if (this.highlighting != null) {
+			editedLine = this.lines.getLineOfRow(this.lines.getRowAtOffset(start));
+			lastEditedLine = this.lines.getLineOfRow(this.lines.getRowAtOffset(end));
+		}
+
+		this.document.replace(start, end, text);
+		this.lines.replace(start, end, text);
+		this.matches.update(this.document, start, end - start, text.length());
+		this.shiftDiagnostics(start, end - start, text.length());
+
+		if (this.highlighting != null) {
+			int newLastEditedLine = this.lines.getLineOfRow(this.lines.getRowAtOffset(start + text.length()));
+			this.highlighting.replaceLines(editedLine, lastEditedLine + 1, newLastEditedLine - editedLine + 1);
+		}
+		this.cursor.setPosition(start + text.length());
+	}
+
+	/**
+	 * Replaces text at every cursor as a single edit.
+	 * <p>
+	 * Each cursor replaces the given number of characters around it, or its selection for the main cursor.
+	 * The replacements are applied to the wrapped rows as one batch, which re-wraps the edited lines
+	 * and updates the row index once whatever the number of cursors, and are recorded as one edit in the history
+	 * which only holds the replaced ranges.
+	 *
+	 * @param before the number of characters before each cursor to replace
+	 * @param after the number of characters after each cursor to replace
+	 * @param text the replacement text
+	 */
+	private void replaceAtCursors(int before, int after, String text) {
+		int length = this.document.length();
+		// Each range is packed as its start in the high bits and its end in the low bits, which sorts them by start.
+		var ranges = new long[this.extraCursors.size() + 1];
+		long mainRange;
+		if (this.selection.active) {
+			mainRange = packRange(this.selection.getStart().getPosition(), this.selection.getEnd().getPosition());
 		} else {
-			this.selection.erase();
+			int position = this.cursor.getPosition();
+			mainRange = packRange(Math.max(0, position - before), Math.min(length, position + after));
+		}
+		ranges[0] = mainRange;
+		for (int i = 0; i < this.extraCursors.size(); i++) {
+			int position = this.extraCursors.get(i).getPosition();
+			ranges[i + 1] = packRange(Math.max(0, position - before), Math.min(length, position + after));
 		}
+		Arrays.sort(ranges);
+
+		// Overlapping ranges are merged, so cursors which meet become a single cursor.
+		var starts = new int[ranges.length];
+		var ends = new int[ranges.length];
+		int count = 0;
+		int mainIndex = 0;
+		for (long range : ranges) {
+			int start = (int) (range >>> 32);
+			int end = (int) range;
+			if (count > 0 && (start < ends[count - 1] || start == starts[count - 1])) {
+				ends[count - 1] = Math.max(ends[count - 1], end);
+			} else {
+				starts[count] = start;
+				ends[count] = end;
+				count++;
+			}
+			if (range == mainRange)
+				mainIndex = count - 1;
+		}
+		starts = Arrays.copyOf(starts, count);
+		ends = Arrays.copyOf(ends, count);
+
+		int removedLength = 0;
+		for (int i = 0; i < count; i++)
+			removedLength += ends[i] - starts[i];
+		// Every cursor gets the same share of the remaining length.
+		int share = Math.max(0, this.getMaxLength() - (length - removedLength)) / count;
+		if (text.length() > share)
+			text = this.truncateInsertion(text, this.getMaxLength() - share);
+		if (text.isEmpty() && removedLength == 0)
+			return;
 
-		if (character == '\n') {
-			String line;
-			if (this.cursor.row == this.lines.size() - 1 && (line = this.lines.get(this.cursor.row)) != null && this.cursor.column >= line.length() - 1) {
-				int currentRow = this.cursor.row;
-				if (!line.endsWith("\n"))
-					this.lines.replaceRow(currentRow, s -> s + "\n");
-				this.lines.add(currentRow + 1, "");
-				this.cursor.moveDown();
-				return;
+		var texts = new String[count];
+		Arrays.fill(texts, text);
+
+		var removed = new CharSequence[count];
+		for (int i = 0; i < count; i++)
+			removed[i] = this.document.subSequence(starts[i], ends[i]);
+		this.history.record(starts, removed, texts);
+
+		this.applyReplacements(starts, ends, texts, mainIndex);
+		this.sanitize();
+	}
+
+	/**
+	 * Replaces several ranges of text at once, keeping the document and the wrapped rows in sync,
+	 * and places a cursor after each replacement.
+	 *
+	 * @param starts the start offsets of the replaced ranges, sorted and not overlapping
+	 * @param ends the end offsets of the replaced ranges
+	 * @param texts the replacement text of each range
+	 * @param mainIndex the index of the range after which the main cursor is placed
+	 */
+	private void applyReplacements(int[] starts, int[] ends, String[] texts, int mainIndex) {
+		int count = starts.length;
+		var editedLines = new int[count];
+		var lastEditedLines = new int[count];
+		if (this.highlighting != null) {
+			for (int i = 0; i < count; i++) {
+				editedLines[i] = this.lines.getLineOfRow(this.lines.getRowAtOffset(starts[i]));
+				lastEditedLines[i] = this.lines.getLineOfRow(this.lines.getRowAtOffset(ends[i]));
 			}
 		}
 
-		var text = this.getText();
-		int cursorPosition = this.cursor.getPosition();
-		int oldSize = this.lines.size();
+		// Going backwards keeps the offsets of the remaining ranges valid.
+		for (int i = count - 1; i >= 0; i--) {
+			this.document.replace(starts[i], ends[i], texts[i]);
+			this.matches.update(this.document, starts[i], ends[i] - starts[i], texts[i].length());
+			this.shiftDiagnostics(starts[i], ends[i] - starts[i], texts[i].length());
+		}
+		this.lines.replace(starts, ends, texts);
 
-		String newText;
-		if (cursorPosition >= text.length()) {
-			newText = text + character;
-		} else {
-			newText = text.substring(0, cursorPosition) + character + text.substring(cursorPosition);
+		if (this.highlighting != null) {
+			for (int i = count - 1; i >= 0; i--) {
+				int lineBreaks = (int) texts[i].chars().filter(c -> c == '\n').count();
+				this.highlighting.replaceLines(editedLines[i], lastEditedLines[i] + 1, lineBreaks + 1);
+			}
 		}
 
-		this.lines.clear();
-		this.lines.add(newText);
+		this.selection.cancel();
+		this.extraCursors.clear();
+		int shift = 0;
+		for (int i = 0; i < count; i++) {
+			int position = starts[i] + shift + texts[i].length();
+			shift += texts[i].length() - (ends[i] - starts[i]);
 
-		if (character == '\n') {
-			this.cursor.moveRight();
-			//this.cursor.moveRight();
-		} else {
-			this.cursor.moveRight();
-			if (oldSize + 1 == this.lines.size())
-				this.cursor.moveRight(); // Extra move right.
+			if (i == mainIndex) {
+				this.cursor.setPosition(position);
+			} else {
+				var extra = new Cursor(false);
+				extra.setPosition(position);
+				this.extraCursors.add(extra);
+			}
 		}
+
+		// Adjacent ranges replaced with empty texts end up at the same position, their cursors are merged.
+		int mainPosition = this.cursor.getPosition();
+		for (int i = this.extraCursors.size() - 1; i >= 0; i--) {
+			int position = this.extraCursors.get(i).getPosition();
+			if (position == mainPosition || (i > 0 && position == this.extraCursors.get(i - 1).getPosition()))
+				this.extraCursors.remove(i);
+		}
+	}
+
+	private static long packRange(int start, int end) {
+		return ((long) start << 32) | end;
+	}
+
+	private void insertCharacter(char character) {
+		this.write(String.valueOf(character));
 	}
 
 	private void eraseCharacter() {
-		if (this.selection.erase()) {
-			this.sanitize();
+		if (!this.extraCursors.isEmpty()) {
+			this.replaceAtCursors(1, 0, "");
 			return;
 		}
 
-		var line = this.lines.get(this.cursor.row);
-
-		if ((line.isEmpty() || line.equals("\n")) && this.lines.size() != 1) {
-			this.lines.remove(this.cursor.row);
-			this.cursor.moveUp();
-			this.cursor.toRowEnd();
+		if (this.selection.erase()) {
+			this.sanitize();
 			return;
 		}
 
-		if (this.cursor.column == 0 && this.cursor.row == 0)
+		int position = this.cursor.getPosition();
+		if (position == 0)
 			return;
 
-		var text = this.getText();
-		int cursorPosition = this.cursor.getPosition();
-		this.cursor.moveLeft();
-		this.lines.clear();
-		this.lines.add(text.substring(0, cursorPosition - 1) + text.substring(cursorPosition));
+		this.replaceText(position - 1, position, "");
 		this.sanitize();
 	}
 
 	private void removeCharacterForward() {
-		if (this.selection.erase()) {
-			this.sanitize();
+		if (!this.extraCursors.isEmpty()) {
+			this.replaceAtCursors(0, 1, "");
 			return;
 		}
 
-		var line = this.lines.get(this.cursor.row);
-
-		if (line.isEmpty()) {
-			int row = this.cursor.row;
-			if (row >= this.lines.size() - 1)
-				return;
-			this.lines.remove(row);
+		if (this.selection.erase()) {
 			this.sanitize();
 			return;
 		}
 
-		if (this.cursor.column >= line.length() && this.cursor.row == this.lines.size() - 1)
+		int position = this.cursor.getPosition();
+		if (position >= this.document.length())
 			return;
 
-		var text = this.getText();
-		int cursorPosition = this.cursor.getPosition();
-
-		var newText = text.substring(0, cursorPosition) + text.substring(cursorPosition + 1);
-		this.lines.clear();
-		this.lines.add(newText);
+		this.replaceText(position, position + 1, "");
 		this.sanitize();
 	}
 
 	/**
-	 * Writes text where the cursor is.
+	 * Writes text where the cursors are.
 	 *
 	 * @param text the text to write
 	 */
@@ -253,38 +1158,68 @@ public class SpruceTextAreaWidget extends AbstractSpruceTextInputWidget {
 		if (text.isEmpty())
 			return;
 
-		if (this.lines.isEmpty()) {
-			this.lines.add(text);
-			this.cursor.toEnd();
+		if (!this.extraCursors.isEmpty()) {
+			this.replaceAtCursors(0, 0, text);
 			return;
 		}
-		this.selection.erase();
 
-		int oldSize = this.lines.size();
+		// Replacing the selection directly records a single edit.
+		int start = this.cursor.getPosition();
+		int end = start;
+		if (this.selection.active) {
+			start = this.selection.getStart().getPosition();
+			end = this.selection.getEnd().getPosition();
+			this.selection.cancel();
+		}
 
-		var whole = this.getText();
-		int position = this.cursor.getPosition();
+		this.replaceText(start, end, text);
+	}
 
-		String newText;
-		if (position >= whole.length()) {
-			newText = whole + text;
-		} else {
-			newText = whole.substring(0, position) + text + whole.substring(position);
-		}
+	/**
+	 * Re-wraps the lines left stale by a width change, starting with the visible ones.
+	 * <p>
+	 * The cursor, the selection and the first displayed line are kept at the same place in the text.
+	 */
+	private void rewrapStaleLines() {
+		if (!this.lines.hasStaleLines())
+			return;
 
-		this.lines.clear();
-		this.lines.setLines(Arrays.asList(newText.split("\n")));
+		this.keepPositions(() -> this.lines.rewrapStaleLines(this.firstLine - OVERSCAN_ROWS,
+				this.displayedLines + 2 * OVERSCAN_ROWS + STALE_LINES_PER_FRAME));
+	}
 
-		for (int i = 0; i < text.length(); i++) {
-			if (text.charAt(i) == '\n')
-				this.cursor.moveRight();
-			this.cursor.moveRight();
-		}
-		if (oldSize < this.lines.size()) this.cursor.moveRight();
+	/**
+	 * Runs an action which changes the rows without changing the text before the cursors and the selection,
+	 * and keeps the cursors, the selection and the first displayed line at the same place in the text.
+	 *
+	 * @param action the action changing the rows
+	 */
+	private void keepPositions(Runnable action) {
+		int cursorPosition = this.cursor.getPosition();
+		int anchorPosition = this.selection.anchor.getPosition();
+		int followerPosition = this.selection.follower.getPosition();
+		int firstLinePosition = this.lines.getOffset(this.firstLine, 0);
+		double scrollOffset = this.scrollOffset;
+		double scrollDistance = this.scrollTarget - this.getScrollPosition();
+		var extraPositions = new int[this.extraCursors.size()];
+		for (int i = 0; i < extraPositions.length; i++)
+			extraPositions[i] = this.extraCursors.get(i).getPosition();
+
+		action.run();
+
+		for (int i = 0; i < extraPositions.length; i++)
+			this.extraCursors.get(i).setPosition(extraPositions[i]);
+		this.selection.anchor.setPosition(anchorPosition);
+		this.selection.follower.setPosition(followerPosition);
+		this.cursor.setPosition(cursorPosition);
+		// The viewport stays in place even if the cursor is out of it.
+		this.firstLine = this.lines.getRowAtOffset(firstLinePosition);
+		this.scrollOffset = scrollOffset;
+		this.scrollTarget = this.getScrollPosition() + scrollDistance;
 	}
 
 	protected boolean doesLineOccupyFullSpace(String cursorLine) {
-		return this.font.width(cursorLine) >= this.getInnerWidth();
+		return GlyphAdvanceCache.width(cursorLine) >= this.getTextWidth();
 	}
 
 	@Override
@@ -320,6 +1255,11 @@ public class SpruceTextAreaWidget extends AbstractSpruceTextInputWidget {
 		if (!this.isEditorActive() || !StringUtil.isAllowedChatCharacter(chr))
 			return false;
 
+		if (this.findBar != null) {
+			this.findBar.append(String.valueOf(chr));
+			return true;
+		}
+
 		if (this.isEditable()) {
 			this.insertCharacter(chr);
 			this.selection.cancel();
@@ -332,9 +1272,28 @@ public class SpruceTextAreaWidget extends AbstractSpruceTextInputWidget {
 		if (!this.isEditorActive())
 			return false;
 
+		if (keyCode == GLFW.GLFW_KEY_F && Screen.hasControlDown() && !Screen.hasShiftDown() && !Screen.hasAltDown()) {
+			if (this.findBar == null)
+				this.openFind();
+			else
+				this.closeFind();
+			return true;
+		} else if (this.findBar != null && this.onFindBarKeyPress(keyCode)) {
+			return true;
+		}
+
 		if (Screen.isSelectAll(keyCode)) {
+			this.extraCursors.clear();
 			this.selection.selectAll();
 			return true;
+		} else if (isUndo(keyCode)) {
+			if (this.isEditable())
+				this.undo();
+			return true;
+		} else if (isRedo(keyCode)) {
+			if (this.isEditable())
+				this.redo();
+			return true;
 		} else if (Screen.isPaste(keyCode)) {
 			this.write(this.client.keyboardHandler.getClipboard());
 			return true;
@@ -350,14 +1309,14 @@ public class SpruceTextAreaWidget extends AbstractSpruceTextInputWidget {
 		}
 
 		return switch (keyCode) {
-			case GLFW.GLFW_KEY_RIGHT -> this.onSelectionUpdate(this.cursor::moveRight);
-			case GLFW.GLFW_KEY_LEFT -> this.onSelectionUpdate(this.cursor::moveLeft);
-			case GLFW.GLFW_KEY_UP -> this.onSelectionUpdate(this.cursor::moveUp);
-			case GLFW.GLFW_KEY_DOWN -> this.onSelectionUpdate(this.cursor::moveDown);
-			case GLFW.GLFW_KEY_END -> this.onSelectionUpdate(Screen.hasControlDown() ? this.cursor::toEnd : this.cursor::toRowEnd);
-			case GLFW.GLFW_KEY_HOME -> this.onSelectionUpdate(Screen.hasControlDown() ? this.cursor::toStart : this.cursor::toLineStart);
-			case GLFW.GLFW_KEY_PAGE_UP -> this.onSelectionUpdate(() -> this.cursor.moveVertical(-this.cursor.row));
-			case GLFW.GLFW_KEY_PAGE_DOWN -> this.onSelectionUpdate(() -> this.cursor.moveVertical(this.lines.size() - this.cursor.row));
+			case GLFW.GLFW_KEY_RIGHT -> this.onCursorsUpdate(Cursor::moveRight);
+			case GLFW.GLFW_KEY_LEFT -> this.onCursorsUpdate(Cursor::moveLeft);
+			case GLFW.GLFW_KEY_UP -> this.onCursorsUpdate(Cursor::moveUp);
+			case GLFW.GLFW_KEY_DOWN -> this.onCursorsUpdate(Cursor::moveDown);
+			case GLFW.GLFW_KEY_END -> this.onCursorsUpdate(Screen.hasControlDown() ? Cursor::toEnd : Cursor::toRowEnd);
+			case GLFW.GLFW_KEY_HOME -> this.onCursorsUpdate(Screen.hasControlDown() ? Cursor::toStart : Cursor::toLineStart);
+			case GLFW.GLFW_KEY_PAGE_UP -> this.onCursorsUpdate(cursor -> cursor.moveVertical(-cursor.row));
+			case GLFW.GLFW_KEY_PAGE_DOWN -> this.onCursorsUpdate(cursor -> cursor.moveVertical(this.lines.size() - cursor.row));
 			case GLFW.GLFW_KEY_ENTER, GLFW.GLFW_KEY_KP_ENTER -> {
 				if (this.isEditable())
 					this.insertCharacter('\n');
@@ -375,7 +1334,8 @@ public class SpruceTextAreaWidget extends AbstractSpruceTextInputWidget {
 			}
 			case GLFW.GLFW_KEY_D -> {
 				if (Screen.hasControlDown() && this.isEditable() && !this.lines.isEmpty()) {
-					this.lines.remove(this.cursor.row);
+					int rowStart = this.lines.getOffset(this.cursor.row, 0);
+					this.replaceText(rowStart, rowStart + this.lines.get(this.cursor.row).length(), "");
 					this.sanitize();
 				}
 				yield true;
@@ -384,22 +1344,93 @@ public class SpruceTextAreaWidget extends AbstractSpruceTextInputWidget {
 		};
 	}
 
+	private boolean onFindBarKeyPress(int keyCode) {
+		if (Screen.isPaste(keyCode)) {
+			var clipboard = this.client.keyboardHandler.getClipboard();
+			int lineEnd = clipboard.indexOf('\n');
+			this.findBar.append(lineEnd == -1 ? clipboard : clipboard.substring(0, lineEnd));
+			return true;
+		}
+
+		switch (keyCode) {
+			case GLFW.GLFW_KEY_ESCAPE -> this.closeFind();
+			case GLFW.GLFW_KEY_TAB -> this.findBar.replacing = !this.findBar.replacing && this.isEditable();
+			case GLFW.GLFW_KEY_BACKSPACE -> this.findBar.eraseCharacter();
+			case GLFW.GLFW_KEY_ENTER, GLFW.GLFW_KEY_KP_ENTER -> {
+				if (this.findBar.replacing) {
+					if (Screen.hasShiftDown())
+						this.replaceAll(this.findBar.replacement);
+					else
+						this.replaceMatch(this.findBar.replacement);
+				} else if (Screen.hasShiftDown()) {
+					this.findPrevious();
+				} else {
+					this.findNext();
+				}
+			}
+			default -> {
+				return false;
+			}
+		}
+		return true;
+	}
+
 	private boolean onSelectionUpdate(Runnable action) {
+		this.history.breakCoalescing();
 		this.selection.tryStartSelection();
 		action.run();
 		this.selection.moveToCursor();
 		return true;
 	}
 
+	/**
+	 * Moves all the cursors, extending the selection of the main cursor instead if shift is held,
+	 * which removes the additional cursors.
+	 *
+	 * @param action the action moving a cursor
+	 * @return {@code true}
+	 */
+	private boolean onCursorsUpdate(Consumer<Cursor> action) {
+		if (Screen.hasShiftDown())
+			this.extraCursors.clear();
+
+		this.onSelectionUpdate(() -> action.accept(this.cursor));
+		if (this.extraCursors.isEmpty())
+			return true;
+
+		for (var extra : this.extraCursors)
+			action.accept(extra);
+
+		// Cursors which end up at the same position are merged.
+		int mainPosition = this.cursor.getPosition();
+		this.extraCursors.sort(Comparator.comparingInt(Cursor::getPosition));
+		for (int i = this.extraCursors.size() - 1; i >= 0; i--) {
+			int position = this.extraCursors.get(i).getPosition();
+			if (position == mainPosition || (i > 0 && position == this.extraCursors.get(i - 1).getPosition()))
+				this.extraCursors.remove(i);
+		}
+		return true;
+	}
+
 	@Override
 	protected boolean onMouseClick(double mouseX, double mouseY, int button) {
 		if (button == 0) {
-			int x = MathHelper.floor(mouseX) - this.getX() - 4;
+			int x = MathHelper.floor(mouseX) - this.getTextX();
 			int y = MathHelper.floor(mouseY) - this.getY() - 4;
 
 			this.setFocused(true);
 
-			int row = this.firstLine + y / 9;
+			// Clicking the find bar does not move the cursor to the row under it.
+			if (this.findBar != null && y >= this.getTextRows() * this.font.lineHeight)
+				return true;
+
+			int row = this.getRowAtY(y);
+			if (Screen.hasAltDown() && row >= 0 && row < this.lines.size()) {
+				this.toggleCursor(row, x);
+				return true;
+			}
+
+			this.extraCursors.clear();
 			if (row >= this.lines.size()) {
 				this.cursor.toEnd();
 				return true;
@@ -408,11 +1439,7 @@ public class SpruceTextAreaWidget extends AbstractSpruceTextInputWidget {
 				return true;
 			}
 
-			this.onSelectionUpdate(() -> {
-				this.cursor.row = row;
-
-				this.cursor.lastColumn = this.cursor.column = this.font.plainSubstrByWidth(this.lines.get(row), x).length();
-			});
+			this.onSelectionUpdate(() -> this.moveCursorTo(row, x));
 
 			return true;
 		}
@@ -420,28 +1447,336 @@ public class SpruceTextAreaWidget extends AbstractSpruceTextInputWidget {
 		return false;
 	}
 
+	@Override
+	protected boolean onMouseDrag(double mouseX, double mouseY, int button, double deltaX, double deltaY) {
+		if (button != 0 || !this.isFocused())
+			return false;
+		if (!this.extraCursors.isEmpty())
+			return true;
+
+		int x = MathHelper.floor(mouseX) - this.getTextX();
+		int y = MathHelper.floor(mouseY) - this.getY() - 4;
+
+		if (!this.selection.active)
+			this.selection.startSelection();
+
+		// Dragging past the top or bottom edge scrolls by one row per event.
+		int row = this.getRowAtY(y);
+		this.moveCursorTo(MathHelper.clamp(row, Math.max(0, this.firstLine - 1), Math.min(this.lines.size() - 1, this.firstLine + this.getTextRows())), x);
+		this.selection.follower.copy(this.cursor);
+		return true;
+	}
+
+	/**
+	 * Adds an additional cursor at the column at the given X offset of the given row,
+	 * or removes the additional cursor which is already there.
+	 *
+	 * @param row the row, which must exist
+	 * @param x the X offset relative to the start of the text
+	 */
+	private void toggleCursor(int row, int x) {
+		this.history.breakCoalescing();
+		int position = this.lines.getOffset(row, this.getRenderedRow(row).getColumnAt(x));
+		if (!this.extraCursors.removeIf(extra -> extra.getPosition() == position))
+			this.addCursor(position);
+	}
+
+	/**
+	 * Moves the cursor to the column at the given X offset of the given row.
+	 *
+	 * @param row the row, which must exist
+	 * @param x the X offset relative to the start of the text
+	 */
+	private void moveCursorTo(int row, int x) {
+		this.history.breakCoalescing();
+		this.cursor.row = row;
+		this.cursor.lastColumn = this.cursor.column = this.getRenderedRow(row).getColumnAt(x);
+		this.cursor.adjustFirstLine();
+	}
+
 	@Override
 	protected boolean onMouseScroll(double mouseX, double mouseY, double scrollX, double scrollY) {
 		if (!this.isEditorActive()) {
 			return false;
 		}
 
-		if (scrollY > 0.) {
-			this.cursor.moveUp();
-		} else {
-			this.cursor.moveDown();
-		}
+		this.scrollTarget = MathHelper.clamp(this.scrollTarget - Math.signum(scrollY) * SCROLL_ROWS * this.font.lineHeight,
+				0., this.getMaxScroll());
 		return true;
 	}
 
+	/* Scrolling */
+
+	/**
+	 * {@return the scroll position, in pixels from the top of the text}
+	 *
+	 * @since 6.2.0
+	 */
+	public double getScrollPosition() {
+		return this.firstLine * this.font.lineHeight + this.scrollOffset;
+	}
+
+	/**
+	 * Scrolls instantly to the given position.
+	 *
+	 * @param position the scroll position, in pixels from the top of the text
+	 * @since 6.2.0
+	 */
+	public void setScrollPosition(double position) {
+		this.moveViewport(position);
+		this.scrollTarget = this.getScrollPosition();
+	}
+
+	/**
+	 * Scrolls smoothly to the given position.
+	 *
+	 * @param position the scroll position, in pixels from the top of the text
+	 * @since 6.2.0
+	 */
+	public void scrollTo(double position) {
+		this.scrollTarget = MathHelper.clamp(position, 0., this.getMaxScroll());
+	}
+
+	/**
+	 * {@return the maximum scroll position, in pixels from the top of the text}
+	 *
+	 * @since 6.2.0
+	 */
+	public double getMaxScroll() {
+		return Math.max(0, this.lines.size() - this.getTextRows()) * this.font.lineHeight;
+	}
+
+	private void moveViewport(double position) {
+		position = MathHelper.clamp(position, 0., this.getMaxScroll());
+		this.firstLine = MathHelper.floor(position / this.font.lineHeight);
+		this.scrollOffset = position - this.firstLine * this.font.lineHeight;
+	}
+
+	/**
+	 * Moves the viewport towards the scroll target, the distance covered depends on the time since the last frame.
+	 */
+	private void updateScroll() {
+		long now = Util.getMillis();
+		double position = this.getScrollPosition();
+		this.scrollTarget = MathHelper.clamp(this.scrollTarget, 0., this.getMaxScroll());
+
+		if (position != this.scrollTarget) {
+			double progress = 1. - Math.exp(-(now - this.lastScrollTime) / SCROLL_SMOOTHING_TIME);
+			position += (this.scrollTarget - position) * progress;
+			if (Math.abs(this.scrollTarget - position) < .5)
+				position = this.scrollTarget;
+		}
+
+		this.lastScrollTime = now;
+		this.moveViewport(position);
+	}
+
+	/**
+	 * {@return the number of whole pixels of the first row scrolled out of view}
+	 */
+	private int getScrollPixels() {
+		return MathHelper.floor(this.scrollOffset);
+	}
+
+	/**
+	 * {@return the number of rows in which text is displayed, excluding the row taken by the find bar while it is open}
+	 */
+	private int getTextRows() {
+		return this.findBar != null && this.displayedLines > 1 ? this.displayedLines - 1 : this.displayedLines;
+	}
+
+	/**
+	 * {@return the end of the visible rows, exclusive, including the row partially visible at the bottom}
+	 */
+	private int getVisibleEndRow() {
+		int visibleRows = this.getTextRows() + (this.getScrollPixels() > 0 ? 1 : 0);
+		return Math.min(this.lines.size(), this.firstLine + visibleRows);
+	}
+
+	/**
+	 * Returns the Y coordinate of the top of the given row.
+	 *
+	 * @param row the row
+	 * @return the Y coordinate
+	 */
+	private int getRowY(int row) {
+		return this.getY() + 4 + (row - this.firstLine) * this.font.lineHeight - this.getScrollPixels();
+	}
+
+	/**
+	 * Returns the row at the given Y offset from the top of the viewport.
+	 *
+	 * @param y the Y offset relative to the top of the text
+	 * @return the row, which may be out of the text
+	 */
+	private int getRowAtY(int y) {
+		return this.firstLine + Math.floorDiv(y + this.getScrollPixels(), this.font.lineHeight);
+	}
+
+	/**
+	 * Lays out the rows around the viewport ahead of time, so that only the rows entering the overscan need a layout while scrolling.
+	 */
+	private void layoutOverscan() {
+		int endRow = Math.min(this.lines.size(), this.getVisibleEndRow() + OVERSCAN_ROWS);
+		for (int row = Math.max(0, this.firstLine - OVERSCAN_ROWS); row < endRow; row++)
+			this.getRenderedRow(row);
+	}
+
 	/* Rendering */
 
 	@Override
 	protected void renderWidget(GuiGraphics graphics, int mouseX, int mouseY, float delta) {
 		super.renderWidget(graphics, mouseX, mouseY, delta);
 
+		this.applyLoadedChunks();
+		this.updateGutter();
+		this.rewrapStaleLines();
+		if (this.highlighting != null)
+			this.highlighting.update(this::getLogicalLine, HIGHLIGHT_LINES_PER_FRAME);
+		this.updateDiagnostics();
+		this.updateScroll();
+		this.layoutOverscan();
+
+		// Rows partially scrolled out of view are cut at the edges of the viewport.
+		int thickness = this.getBorder().getThickness();
+		graphics.enableScissor(this.getX() + thickness, this.getY() + 3,
+				this.getX() + this.getWidth() - thickness, Math.min(this.getY() + 4 + this.getTextRows() * this.font.lineHeight, this.getY() + this.getHeight() - thickness));
+		this.drawMatches(graphics);
+		this.drawLineNumbers(graphics);
 		this.drawText(graphics);
+		this.drawDiagnostics(graphics);
 		this.drawCursor(graphics);
+		graphics.disableScissor();
+		this.drawFindBar(graphics);
+	}
+
+	/**
+	 * Highlights the occurrences of the searched text within the visible rows.
+	 *
+	 * @param graphics the GUI graphics instance to render with
+	 */
+	protected void drawMatches(GuiGraphics graphics) {
+		if (this.matches.isEmpty() || this.lines.isEmpty())
+			return;
+
+		int lastRow = this.getVisibleEndRow() - 1;
+		int visibleStart = this.lines.getOffset(this.firstLine, 0);
+		int visibleEnd = this.lines.getOffset(lastRow, 0) + this.lines.get(lastRow).length();
+
+		for (int i = this.matches.firstEndingAfter(visibleStart); i < this.matches.size() && this.matches.getStart(i) < visibleEnd; i++) {
+			int start = Math.max(this.matches.getStart(i), visibleStart);
+			int end = Math.min(this.matches.getEnd(i), visibleEnd);
+			int row = this.lines.getRowAtOffset(start);
+			int rowStart = this.lines.getOffset(row, 0);
+
+			// A match may span over several rows.
+			while (start < end && row <= lastRow) {
+				var rendered = this.getRenderedRow(row);
+				int rowEnd = rowStart + this.lines.get(row).length();
+				int x = this.getTextX() + rendered.getColumnX(start - rowStart);
+				int x2 = this.getTextX() + rendered.getColumnX(Math.min(end, rowEnd) - rowStart);
+				int y = this.getRowY(row);
+				graphics.fill(x, y, x2, y + this.font.lineHeight, MATCH_HIGHLIGHT_COLOR);
+
+				start = rowStart = rowEnd;
+				row++;
+			}
+		}
+	}
+
+	/**
+	 * Underlines the diagnostics within the visible rows.
+	 *
+	 * @param graphics the GUI graphics instance to render with
+	 */
+	protected void drawDiagnostics(GuiGraphics graphics) {
+		if (this.diagnostics.isEmpty() || this.lines.isEmpty())
+			return;
+
+		int lastRow = this.getVisibleEndRow() - 1;
+		int visibleStart = this.lines.getOffset(this.firstLine, 0);
+		int visibleEnd = this.lines.getOffset(lastRow, 0) + this.lines.get(lastRow).length();
+
+		for (int i = this.diagnostics.firstEndingAfter(visibleStart); i < this.diagnostics.size(); i++) {
+			var diagnostic = this.diagnostics.get(i);
+			if (diagnostic.start() >= visibleEnd)
+				break;
+
+			int start = Math.max(diagnostic.start(), visibleStart);
+			int end = Math.min(diagnostic.end(), visibleEnd);
+			if (end <= start)
+				continue;
+
+			int row = this.lines.getRowAtOffset(start);
+			int rowStart = this.lines.getOffset(row, 0);
+
+			// A diagnostic may span over several rows.
+			while (start < end && row <= lastRow) {
+				var rendered = this.getRenderedRow(row);
+				int rowEnd = rowStart + this.lines.get(row).length();
+				int x = this.getTextX() + rendered.getColumnX(start - rowStart);
+				int x2 = this.getTextX() + rendered.getColumnX(Math.min(end, rowEnd) - rowStart);
+				int y = this.getRowY(row) + this.font.lineHeight - 1;
+				this.drawSquiggle(graphics, x, Math.max(x2, x + 2), y, diagnostic.severity().getColor());
+
+				start = rowStart = rowEnd;
+				row++;
+			}
+		}
+	}
+
+	private void drawSquiggle(GuiGraphics graphics, int x, int x2, int y, int color) {
+		for (int segmentX = x; segmentX < x2; segmentX += 2) {
+			int segmentY = y + ((segmentX - x) / 2 & 1);
+			graphics.fill(segmentX, segmentY, Math.min(segmentX + 2, x2), segmentY + 1, color);
+		}
+	}
+
+	/**
+	 * Draws the find bar in the last displayed row, below the rows of text, if open.
+	 *
+	 * @param graphics the GUI graphics instance to render with
+	 */
+	protected void drawFindBar(GuiGraphics graphics) {
+		if (this.findBar == null)
+			return;
+
+		int thickness = this.getBorder().getThickness();
+		int y = this.getY() + 4 + (this.displayedLines - 1) * this.font.lineHeight;
+		graphics.fill(this.getX() + thickness, y - 1, this.getX() + this.getWidth() - thickness, y + this.font.lineHeight, FIND_BAR_COLOR);
+
+		var field = this.findBar.replacing
+				? Text.translatable("spruceui.text_area.replace", this.findBar.replacement + '_')
+				: Text.translatable("spruceui.text_area.find", this.findBar.query + '_');
+		graphics.drawShadowedText(this.font, field, this.getX() + 4, y, ColorUtil.TEXT_COLOR);
+
+		int selectedMatch = this.getSelectedMatch();
+		var count = Text.translatable("spruceui.text_area.find.matches",
+				selectedMatch == -1 ? "-" : String.valueOf(selectedMatch + 1), this.matches.size());
+		graphics.drawShadowedText(this.font, count, this.getX() + 4 + this.getInnerWidth() - this.font.width(count), y, ColorUtil.TEXT_COLOR);
+	}
+
+	/**
+	 * Draws the numbers of the logical lines starting within the visible rows in the gutter.
+	 *
+	 * @param graphics the GUI graphics instance to render with
+	 */
+	protected void drawLineNumbers(GuiGraphics graphics) {
+		if (!this.lineNumbers)
+			return;
+
+		int numbersEnd = this.getTextX() - GUTTER_PADDING;
+		int lineY = this.getRowY(this.firstLine);
+		int endRow = this.getVisibleEndRow();
+		for (int row = this.firstLine; row < endRow; row++) {
+			var rendered = this.getRenderedRow(row);
+			if (rendered != null && rendered.lineNumberText != null) {
+				int x = numbersEnd - GlyphAdvanceCache.width(rendered.lineNumberText);
+				graphics.drawShadowedText(this.font, rendered.lineNumberText, x, lineY, LINE_NUMBER_COLOR);
+			}
+
+			lineY += this.font.lineHeight;
+		}
 	}
 
 	/**
@@ -450,26 +1785,27 @@ public class SpruceTextAreaWidget extends AbstractSpruceTextInputWidget {
 	 * @param graphics the GUI graphics instance to render with
 	 */
 	protected void drawText(GuiGraphics graphics) {
-		int length = Math.min(this.lines.size(), this.displayedLines);
-
 		int textColor = this.getTextColor();
-		int textX = this.getX() + 4;
-		int lineY = this.getY() + 4;
+		int textX = this.getTextX();
 		var placeholder = this.getPlaceholder();
 
-		if (this.getText().isEmpty() && placeholder != null) {
-			graphics.drawShadowedText(this.client.font, placeholder, textX, lineY, textColor);
+		if (this.document.isEmpty() && placeholder != null) {
+			graphics.drawShadowedText(this.client.font, placeholder, textX, this.getY() + 4, textColor);
 			return;
 		}
 
-		for (int row = this.firstLine; row < this.firstLine + length; row++) {
-			var line = this.lines.get(row);
-			if (line == null)
+		int lineY = this.getRowY(this.firstLine);
+		int endRow = this.getVisibleEndRow();
+		for (int row = this.firstLine; row < endRow; row++) {
+			var rendered = this.getRenderedRow(row);
+			if (rendered == null)
 				continue;
-			if (line.endsWith("\n")) line = line.substring(0, line.length() - 1);
 
-			graphics.drawShadowedText(this.font, Text.literal(line), textX, lineY, textColor);
-			this.drawSelection(graphics, line, lineY, row);
+			if (rendered.highlightedText != null)
+				graphics.drawShadowedText(this.font, rendered.highlightedText, textX, lineY, textColor);
+			else
+				graphics.drawShadowedText(this.font, rendered.text, textX, lineY, textColor);
+			this.drawSelection(graphics, rendered.line, lineY, row);
 
 			lineY += this.font.lineHeight;
 		}
@@ -503,10 +1839,16 @@ public class SpruceTextAreaWidget extends AbstractSpruceTextInputWidget {
 		if (startIndex >= line.length() || startIndex == endIndex)
 			return;
 
-		int x = this.getX() + 4 + this.font.width(line.substring(0, startIndex));
-		var selected = line.substring(startIndex, endIndex);
-
-		int x2 = x + this.font.width(selected);
+		var rendered = this.getRenderedRow(row);
+		int x;
+		int x2;
+		if (rendered != null && rendered.line.equals(line)) {
+			x = this.getTextX() + rendered.getColumnX(startIndex);
+			x2 = this.getTextX() + rendered.getColumnX(endIndex);
+		} else {
+			x = this.getTextX() + GlyphAdvanceCache.width(line, 0, startIndex);
+			x2 = x + GlyphAdvanceCache.width(line, startIndex, endIndex);
+		}
 		int y2 = lineY + this.font.lineHeight;
 
 		graphics.fill(RenderType.guiTextHighlight(), x, lineY, x2, y2, 0xff0000ff);
@@ -521,21 +1863,237 @@ public class SpruceTextAreaWidget extends AbstractSpruceTextInputWidget {
 		if (!this.isFocused())
 			return;
 		if (this.lines.isEmpty()) {
-			graphics.drawShadowedText(this.font, Text.literal("_"), this.getX(), this.getY() + 4, ColorUtil.TEXT_COLOR);
+			graphics.drawShadowedText(this.font, "_", this.getX(), this.getY() + 4, ColorUtil.TEXT_COLOR);
 			return;
 		}
 
-		this.cursor.sanitize();
+		// The viewport may have been scrolled away from the cursor, which must not bring it back.
+		this.cursor.clamp();
+
+		int endRow = this.getVisibleEndRow();
+		if (this.cursor.row >= this.firstLine && this.cursor.row < endRow) {
+			String cursorLine = this.lines.get(this.cursor.row);
+			int cursorX = this.getTextX() + this.getCursorX(this.cursor);
+			int cursorY = this.getRowY(this.cursor.row);
+
+			if (this.cursor.row < this.lines.size() - 1 || this.cursor.column < cursorLine.length() || this.doesLineOccupyFullSpace(cursorLine))
+				graphics.fill(cursorX - 1, cursorY - 1, cursorX, cursorY + 9, ColorUtil.TEXT_COLOR);
+			else
+				graphics.drawShadowedText(this.font, "_", cursorX, cursorY, ColorUtil.TEXT_COLOR);
+		}
+
+		for (var extra : this.extraCursors) {
+			extra.clamp();
+			if (extra.row < this.firstLine || extra.row >= endRow)
+				continue;
+
+			int extraX = this.getTextX() + this.getCursorX(extra);
+			int extraY = this.getRowY(extra.row);
+			graphics.fill(extraX - 1, extraY - 1, extraX, extraY + 9, ColorUtil.TEXT_COLOR);
+		}
+	}
+
+	/**
+	 * Returns the X offset of the given cursor relative to the start of the text.
+	 *
+	 * @param cursor the cursor
+	 * @return the X offset
+	 */
+	private int getCursorX(Cursor cursor) {
+		var rendered = this.getRenderedRow(cursor.row);
+		return rendered != null && cursor.column <= rendered.line.length()
+				? rendered.getColumnX(cursor.column)
+				: GlyphAdvanceCache.width(this.lines.get(cursor.row), 0, cursor.column);
+	}
+
+	/**
+	 * Returns the cached renderable of the given row, which is updated only if the row has changed since it got cached.
+	 *
+	 * @param row the row
+	 * @return the renderable of the row, or {@code null} if the row does not exist
+	 */
+	private @Nullable RenderedRow getRenderedRow(int row) {
+		if (row < 0 || row >= this.lines.size())
+			return null;
+
+		// Enough slots for the partially visible rows and the overscan, plus one so that scrolling by one row keeps every other row cached.
+		int slots = this.displayedLines + 2 * OVERSCAN_ROWS + 2;
+		if (this.renderedRows.length < slots) {
+			this.renderedRows = new RenderedRow[slots];
+			for (int i = 0; i < this.renderedRows.length; i++)
+				this.renderedRows[i] = new RenderedRow();
+		}
+
+		var rendered = this.renderedRows[row % this.renderedRows.length];
+		rendered.update(this.lines.get(row));
+		if (this.highlighting != null || this.lineNumbers) {
+			int line = this.lines.getLineOfRow(row);
+			int lineStartRow = this.lines.getLineStartRow(line);
+			if (this.highlighting != null) {
+				int column = this.lines.getOffset(row, 0) - this.lines.getOffset(lineStartRow, 0);
+				rendered.updateHighlighting(this.highlighting.get(line), column);
+			} else {
+				rendered.updateHighlighting(null, 0);
+			}
+			rendered.updateLineNumber(row == lineStartRow ? line : -1);
+		} else {
+			rendered.updateHighlighting(null, 0);
+			rendered.updateLineNumber(-1);
+		}
+		return rendered;
+	}
+
+	/**
+	 * Represents the cached renderable text and measurements of a row.
+	 * <p>
+	 * Rows are immutable strings which get replaced whenever the text of the row changes,
+	 * the cache is only refreshed when the row string or the glyph advances change,
+	 * the highlighted text when the highlighting of its line changes, and the line number string when the line starting at the row changes.
+	 */
+	private static final class RenderedRow {
+		private String source;
+		private int glyphGeneration;
+		private String line;
+		private Text text;
+		private TextAdvances advances;
+		private @Nullable HighlightedLine highlighting;
+		private int highlightingColumn;
+		private @Nullable FormattedCharSequence highlightedText;
+		private int lineNumber = -1;
+		private @Nullable String lineNumberText;
+
+		private void update(String source) {
+			if (this.source == source && this.glyphGeneration == GlyphAdvanceCache.getGeneration())
+				return;
+
+			this.source = source;
+			this.glyphGeneration = GlyphAdvanceCache.getGeneration();
+			this.line = source.endsWith("\n") ? source.substring(0, source.length() - 1) : source;
+			this.text = Text.literal(this.line);
+			this.advances = TextAdvances.of(this.line);
+			this.highlighting = null;
+			this.highlightedText = null;
+		}
+
+		/**
+		 * Updates the highlighted text of this row.
+		 *
+		 * @param highlighting the highlighting of the logical line of the row
+		 * @param column the column of the start of the row in its logical line
+		 */
+		private void updateHighlighting(@Nullable HighlightedLine highlighting, int column) {
+			if (this.highlighting == highlighting && this.highlightingColumn == column)
+				return;
+
+			this.highlighting = highlighting;
+			this.highlightingColumn = column;
+			this.highlightedText = highlighting == null ? null : highlighting.slice(this.line, column);
+		}
+
+		/**
+		 * Updates the line number displayed in the gutter next to this row.
+		 *
+		 * @param line the logical line starting at this row, or {@code -1} if the row continues a wrapped line
+		 */
+		private void updateLineNumber(int line) {
+			if (this.lineNumber == line)
+				return;
+
+			this.lineNumber = line;
+			this.lineNumberText = line < 0 ? null : Integer.toString(line + 1);
+		}
+
+		/**
+		 * {@return the X offset of the given column in this row}
+		 *
+		 * @param column the column, at most the length of the row
+		 */
+		private int getColumnX(int column) {
+			return this.advances.getX(column);
+		}
+
+		/**
+		 * {@return the column at the given X offset in this row}
+		 *
+		 * @param x the X offset
+		 */
+		private int getColumnAt(int x) {
+			return this.advances.getColumnAt(x);
+		}
+	}
+
+	/**
+	 * Represents the state of the find bar.
+	 */
+	private final class FindBar {
+		private String query = "";
+		private String replacement = "";
+		private boolean replacing = false;
+
+		private void append(String text) {
+			if (this.replacing) {
+				this.replacement += text;
+			} else {
+				this.query += text;
+				setFindQuery(this.query, true);
+			}
+		}
+
+		private void eraseCharacter() {
+			if (this.replacing) {
+				if (!this.replacement.isEmpty())
+					this.replacement = this.replacement.substring(0, this.replacement.length() - 1);
+			} else if (!this.query.isEmpty()) {
+				this.query = this.query.substring(0, this.query.length() - 1);
+				setFindQuery(this.query, true);
+			}
+		}
+	}
+
+	/**
+	 * Represents the state of a text load, shared with the background thread reading and wrapping the text.
+	 */
+	private static final class Loading {
+		private final Queue<MultilineText.WrappedText> chunks = new ConcurrentLinkedQueue<>();
+		private final CompletableFuture<Void> future = new CompletableFuture<>();
+		private volatile boolean finished = false;
+		/**
+		 * The wrapping mode of the text area, which may change while loading.
+		 */
+		private volatile boolean wordWrap;
+
+		private Loading(boolean wordWrap) {
+			this.wordWrap = wordWrap;
+		}
 
-		int actualRow = this.cursor.row - firstLine;
-		String cursorLine = this.lines.get(this.cursor.row);
-		int cursorX = this.getX() + 4 + this.font.width(cursorLine.substring(0, this.cursor.column));
-		int cursorY = this.getY() + 4 + actualRow * this.font.lineHeight;
+		private void publish(String text, int width) {
+			GlyphAdvanceCache.prefetch(text).join();
+			this.chunks.add(MultilineText.wrapText(text, width, this.wordWrap));
+		}
 
-		if (this.cursor.row < this.lines.size() - 1 || this.cursor.column < cursorLine.length() || this.doesLineOccupyFullSpace(cursorLine))
-			graphics.fill(cursorX - 1, cursorY - 1, cursorX, cursorY + 9, ColorUtil.TEXT_COLOR);
-		else
-			graphics.drawShadowedText(this.font, "_", cursorX, cursorY, ColorUtil.TEXT_COLOR);
+		/**
+		 * Publishes the rows of a part of a long line except its last row,
+		 * which may still change with the following text and is kept to be wrapped with it.
+		 * <p>
+		 * The published rows are then final, so appending them does not re-wrap them on the render thread.
+		 *
+		 * @param part the part of the line, without any line break
+		 * @param width the width to wrap the part with
+		 * @return the length of the published text
+		 */
+		private int publishPart(String part, int width) {
+			GlyphAdvanceCache.prefetch(part).join();
+			var wrapped = MultilineText.wrapText(part, width, this.wordWrap);
+			var rows = wrapped.rows();
+			if (rows.size() <= 1)
+				return 0;
+
+			int length = part.length() - rows.get(rows.size() - 1).length();
+			// The break opportunities of the line are only known once the line is complete.
+			this.chunks.add(new MultilineText.WrappedText(part.substring(0, length), wrapped.width(), wrapped.wordWrap(),
+					rows.subList(0, rows.size() - 1), new int[] {0}, Collections.singletonList(null)));
+			return length;
+		}
 	}
 
 	/**
@@ -659,6 +2217,14 @@ public class SpruceTextAreaWidget extends AbstractSpruceTextInputWidget {
 		 * Sanitizes the cursor.
 		 */
 		public void sanitize() {
+			this.clamp();
+			this.adjustFirstLine();
+		}
+
+		/**
+		 * Clamps this cursor to the text, without scrolling to it.
+		 */
+		private void clamp() {
 			if (lines.size() <= this.row)
 				this.row = lines.size() - 1;
 			if (this.row < 0)
@@ -668,8 +2234,6 @@ public class SpruceTextAreaWidget extends AbstractSpruceTextInputWidget {
 			if (line.endsWith("\n")) line = line.substring(0, line.length() - 1);
 			if (this.column > line.length())
 				this.column = line.length();
-
-			this.adjustFirstLine();
 		}
 
 		/**
@@ -688,31 +2252,48 @@ public class SpruceTextAreaWidget extends AbstractSpruceTextInputWidget {
 		 * @return the position
 		 */
 		public int getPosition() {
-			int position = 0;
-			for (int i = 0; i < this.row; i++) position += lines.get(i).length();
-			for (int i = 0; i < this.column; i++) position += 1;
-			return position;
+			return lines.getOffset(this.row, this.column);
+		}
+
+		/**
+		 * Moves the cursor to the given position in the text.
+		 *
+		 * @param position the position
+		 */
+		public void setPosition(int position) {
+			this.row = lines.getRowAtOffset(position);
+			this.lastColumn = this.column = position - lines.getOffset(this.row, 0);
+			this.adjustFirstLine();
 		}
 
 		private void adjustFirstLine() {
 			if (!this.main)
 				return;
 
+			int previousFirstLine = firstLine;
+
 			if (firstLine > this.row)
 				firstLine = this.row;
 
 			if (firstLine == lines.size())
 				firstLine--;
-			int endLine = firstLine + displayedLines - 1;
+			int textRows = getTextRows();
+			int endLine = firstLine + textRows - 1;
 			if (endLine >= lines.size()) {
-				firstLine = lines.size() - displayedLines - 1;
+				firstLine = lines.size() - textRows - 1;
 			}
 
-			if (this.row >= firstLine + displayedLines)
-				firstLine = this.row - displayedLines + 1;
+			if (this.row >= firstLine + textRows)
+				firstLine = this.row - textRows + 1;
 
 			if (firstLine < 0)
 				firstLine = 0;
+
+			if (firstLine != previousFirstLine) {
+				// Following the cursor cancels the smooth scrolling.
+				scrollOffset = 0.;
+				scrollTarget = firstLine * font.lineHeight;
+			}
 		}
 
 		@Override
@@ -791,41 +2372,15 @@ public class SpruceTextAreaWidget extends AbstractSpruceTextInputWidget {
 			if (!this.active)
 				return false;
 
-			var start = this.getStart();
-			var end = this.getEnd();
+			int start = this.getStart().getPosition();
+			int end = this.getEnd().getPosition();
 
-			if (start.isSame(end)) {
+			if (start == end) {
 				this.cancel();
 				return false;
 			}
 
-			if (start.row == 0 && start.column == 0 && end.row == lines.size() - 1 && end.column >= lines.get(lines.size() - 1).length()) {
-				lines.clear();
-				lines.add("");
-				this.cancel();
-				return true;
-			}
-
-			if (start.row == end.row) {
-				String line = lines.get(start.row);
-
-				if (start.column == 0 && end.column >= line.length())
-					lines.remove(start.row);
-				else
-					lines.replaceRow(start.row, line.substring(0, start.column) + line.substring(end.column));
-
-				cursor.copy(start);
-				this.cancel();
-				return true;
-			}
-
-			String text = getText();
-			var newText = text.substring(0, start.getPosition()) + text.substring(end.getPosition());
-
-			lines.clear();
-			lines.add(newText);
-
-			cursor.copy(start);
+			replaceText(start, end, "");
 
 			this.cancel();
 			return true;
@@ -849,7 +2404,24 @@ public class SpruceTextAreaWidget extends AbstractSpruceTextInputWidget {
 			if (start.row == end.row)
 				return lines.get(start.row).substring(start.column, end.column);
 
-			return getText().substring(start.getPosition(), end.getPosition());
+			// Only the selected range is copied out of the document, instead of the whole text.
+			return document.subSequence(start.getPosition(), end.getPosition());
+		}
+
+		/**
+		 * Appends the selected text to the given string builder, copying only the selected range of the text.
+		 *
+		 * @param builder the string builder
+		 * @since 6.2.0
+		 */
+		public void appendSelectedText(StringBuilder builder) {
+			if (!this.active)
+				return;
+
+			int start = this.getStart().getPosition();
+			int end = this.getEnd().getPosition();
+			builder.ensureCapacity(builder.length() + end - start);
+			document.appendTo(builder, start, end);
 		}
 
 		public Cursor getStart() {
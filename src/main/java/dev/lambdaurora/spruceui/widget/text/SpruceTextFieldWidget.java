@@ -9,10 +9,16 @@
 
 package dev.lambdaurora.spruceui.widget.text;
 
+import com.mojang.logging.LogUtils;
 import dev.lambdaurora.spruceui.Position;
 import dev.lambdaurora.spruceui.Tooltip;
 import dev.lambdaurora.spruceui.Tooltipable;
 import dev.lambdaurora.spruceui.navigation.NavigationDirection;
+import dev.lambdaurora.spruceui.text.GlyphAdvanceCache;
+import dev.lambdaurora.spruceui.text.NumberInputFormat;
+import dev.lambdaurora.spruceui.text.SuggestionIndex;
+import dev.lambdaurora.spruceui.text.TextAdvanceIndex;
+import dev.lambdaurora.spruceui.text.TextEditHistory;
 import dev.lambdaurora.spruceui.util.ColorUtil;
 import net.minecraft.Util;
 import net.minecraft.client.gui.GuiGraphics;
@@ -27,9 +33,11 @@ import net.minecraft.util.StringUtil;
 import net.minecraft.util.math.MathHelper;
 import org.jetbrains.annotations.Nullable;
 import org.lwjgl.glfw.GLFW;
+import org.slf4j.Logger;
 
 import java.util.Objects;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
 import java.util.function.BiFunction;
 import java.util.function.Consumer;
 import java.util.function.Predicate;
@@ -38,48 +46,58 @@ import java.util.function.Predicate;
  * Represents a text field widget.
  *
  * @author LambdAurora
- * @version 6.1.0
+ * @version 6.2.0
  * @since 2.1.0
  */
 public class SpruceTextFieldWidget extends AbstractSpruceTextInputWidget implements Tooltipable {
-	public static final Predicate<String> INTEGER_INPUT_PREDICATE = input -> {
-		if (input.isEmpty() || input.equals("-")) return true;
-		try {
-			Integer.parseInt(input);
-			return true;
-		} catch (NumberFormatException e) {
-			return false;
-		}
-	};
-	public static final Predicate<String> FLOAT_INPUT_PREDICATE = input -> {
-		if (input.isEmpty() || input.equals("-") || input.equals(".")) return true;
-		try {
-			Float.parseFloat(input);
-			return true;
-		} catch (NumberFormatException e) {
-			return false;
-		}
-	};
-	public static final Predicate<String> DOUBLE_INPUT_PREDICATE = input -> {
-		if (input.isEmpty() || input.equals("-") || input.equals(".")) return true;
-		try {
-			Double.parseDouble(input);
-			return true;
-		} catch (NumberFormatException e) {
-			return false;
-		}
+	public static final Predicate<String> INTEGER_INPUT_PREDICATE = input -> switch (NumberInputFormat.INT.validate(input)) {
+		case INCOMPLETE, VALID -> true;
+		default -> false;
 	};
+	public static final Predicate<String> FLOAT_INPUT_PREDICATE = NumberInputFormat.DECIMAL::accepts;
+	public static final Predicate<String> DOUBLE_INPUT_PREDICATE = NumberInputFormat.DECIMAL::accepts;
+
+	private static final Logger LOGGER = LogUtils.getLogger();
+	private static final int SUGGESTION_ROW_HEIGHT = 12;
+	private static final int MAX_SUGGESTION_ROWS = 8;
+	private static final int SUGGESTION_BACKGROUND_COLOR = 0xf0101010;
+	private static final int SELECTED_SUGGESTION_COLOR = 0xff404040;
 
 	private final Cursor cursor = new Cursor(true);
 	private final Selection selection = new Selection();
 	private String text = "";
+	private final TextAdvanceIndex advances = new TextAdvanceIndex();
+	private final TextEditHistory history = new TextEditHistory();
 	private Text tooltip;
 
 	private Consumer<String> changedListener;
+	private TextCommitPolicy commitPolicy = TextCommitPolicy.IMMEDIATE;
+	/**
+	 * The text last given to the changed listener.
+	 */
+	private String committedText = "";
+	private boolean pendingCommit;
+	private long firstPendingEditTime;
+	private long lastPendingEditTime;
 	private Predicate<String> textPredicate;
 	private BiFunction<String, Integer, FormattedCharSequence> renderTextProvider;
 
+	private @Nullable NumberInputFormat numberFormat;
+	/**
+	 * The text whose validity got cached, the text being replaced on each edit.
+	 */
+	private @Nullable String validatedText;
+	private boolean validNumber;
+
+	private @Nullable SuggestionPopup suggestions;
+
 	private int firstCharacterIndex = 0;
+	private @Nullable DisplayedText displayedText;
+	/**
+	 * The output of the render text provider, cached for the displayed text it got computed from.
+	 */
+	private @Nullable FormattedCharSequence renderedText;
+	private @Nullable DisplayedText renderedDisplayedText;
 	private long editingTime;
 	private int tooltipTicks;
 	private long lastTick;
@@ -110,13 +128,19 @@ public class SpruceTextFieldWidget extends AbstractSpruceTextInputWidget impleme
 
 	@Override
 	public void setText(String text) {
+		text = this.truncateInsertion(text, 0);
 		if (this.textPredicate.test(text)) {
 			this.text = text;
+			this.advances.setText(text);
+			this.history.clear();
 
 			this.setCursorToEnd();
 			this.selection.cancel();
 			this.sanitize();
 			this.onChanged();
+			this.commitPendingChange();
+			if (this.suggestions != null)
+				this.suggestions.open = false;
 		}
 	}
 
@@ -138,6 +162,167 @@ public class SpruceTextFieldWidget extends AbstractSpruceTextInputWidget impleme
 		this.changedListener = changedListener;
 	}
 
+	/**
+	 * {@return the policy deciding when edits are committed to the changed listener}
+	 *
+	 * @since 6.2.0
+	 */
+	public TextCommitPolicy getCommitPolicy() {
+		return this.commitPolicy;
+	}
+
+	/**
+	 * Sets the policy deciding when edits are committed to the changed listener.
+	 * <p>
+	 * Any pending edit is committed before the policy changes.
+	 *
+	 * @param commitPolicy the commit policy
+	 * @since 6.2.0
+	 */
+	public void setCommitPolicy(TextCommitPolicy commitPolicy) {
+		Objects.requireNonNull(commitPolicy, "The commit policy cannot be null.");
+		this.commitPendingChange();
+		this.commitPolicy = commitPolicy;
+	}
+
+	/**
+	 * {@return {@code true} if edits have not been committed to the changed listener yet, or {@code false} otherwise}
+	 *
+	 * @since 6.2.0
+	 */
+	public boolean hasPendingChange() {
+		return this.pendingCommit;
+	}
+
+	/**
+	 * Commits the pending edits to the changed listener, regardless of the commit policy.
+	 * <p>
+	 * This is called when the text field is {@linkplain #removed() removed} from a Spruce screen,
+	 * a text field held by another screen has to be committed before it is discarded as deferred edits are otherwise lost.
+	 *
+	 * @return {@code true} if the changed listener has been called, or {@code false} otherwise
+	 * @since 6.2.0
+	 */
+	public boolean commitPendingChange() {
+		if (!this.pendingCommit)
+			return false;
+
+		this.pendingCommit = false;
+		if (this.text.equals(this.committedText))
+			return false;
+
+		this.commitChange();
+		return true;
+	}
+
+	private void commitChange() {
+		this.pendingCommit = false;
+		this.committedText = this.text;
+		if (this.changedListener != null) {
+			this.changedListener.accept(this.text);
+		}
+	}
+
+	@Override
+	public void tick() {
+		this.commitDueChange();
+	}
+
+	@Override
+	public void removed() {
+		this.commitPendingChange();
+	}
+
+	/**
+	 * Commits the pending edits if they are due according to the commit policy.
+	 */
+	private void commitDueChange() {
+		if (this.pendingCommit
+				&& Util.getMillis() >= this.commitPolicy.getCommitTime(this.firstPendingEditTime, this.lastPendingEditTime)) {
+			this.commitPendingChange();
+		}
+	}
+
+	/**
+	 * {@return the index of the suggestions shown as the text is edited, or {@code null} if there are no suggestions}
+	 *
+	 * @since 6.2.0
+	 */
+	public @Nullable SuggestionIndex getSuggestions() {
+		return this.suggestions == null ? null : this.suggestions.index;
+	}
+
+	/**
+	 * Sets the suggestions shown in a popup below the text field as the text is edited.
+	 * <p>
+	 * The suggestions start with the text, and are narrowed from the previous ones as characters are typed.
+	 * The up and down keys select a suggestion, and Tab or Enter replaces the text with it.
+	 * <p>
+	 * The popup is rendered with the text field, widgets rendered afterward are drawn over it.
+	 *
+	 * @param suggestions the index of the suggestions, or {@code null} to remove the suggestions
+	 * @since 6.2.0
+	 */
+	public void setSuggestions(@Nullable SuggestionIndex suggestions) {
+		boolean fuzzy = this.isFuzzySuggestions();
+		this.suggestions = suggestions == null ? null : new SuggestionPopup(suggestions);
+		this.setFuzzySuggestions(fuzzy);
+	}
+
+	/**
+	 * {@return {@code true} if the suggestions are matched fuzzily, or {@code false} if they are matched by prefix}
+	 *
+	 * @since 6.2.0
+	 */
+	public boolean isFuzzySuggestions() {
+		return this.suggestions != null && this.suggestions.fuzzy;
+	}
+
+	/**
+	 * Sets whether the suggestions are matched fuzzily.
+	 * <p>
+	 * Fuzzy matching finds the suggestions containing the characters of the text in order, ranked by how well they match.
+	 * It runs in the background, the suggestions starting with the text are shown until it completes.
+	 *
+	 * @param fuzzy {@code true} to match the suggestions fuzzily, or {@code false} to match them by prefix
+	 * @since 6.2.0
+	 */
+	public void setFuzzySuggestions(boolean fuzzy) {
+		if (this.suggestions != null) {
+			this.suggestions.fuzzy = fuzzy;
+			this.suggestions.selected = 0;
+			this.suggestions.scroll = 0;
+		}
+	}
+
+	/**
+	 * {@return {@code true} if the suggestion popup is shown, or {@code false} otherwise}
+	 *
+	 * @since 6.2.0
+	 */
+	public boolean isSuggesting() {
+		return this.suggestions != null && this.suggestions.isShown();
+	}
+
+	/**
+	 * Replaces the text with the selected suggestion.
+	 *
+	 * @return {@code true} if a suggestion has been accepted, or {@code false} otherwise
+	 */
+	private boolean acceptSuggestion(int index) {
+		var suggestions = this.suggestions;
+		if (suggestions == null || index < 0 || index >= suggestions.size())
+			return false;
+
+		var suggestion = this.truncateInsertion(suggestions.get(index), 0);
+		this.selection.cancel();
+		if (!suggestion.equals(this.text) && this.replaceText(0, this.text.length(), suggestion))
+			this.setCursorToEnd();
+		suggestions.open = false;
+		this.sanitize();
+		return true;
+	}
+
 	public Predicate<String> getTextPredicate() {
 		return this.textPredicate;
 	}
@@ -146,12 +331,76 @@ public class SpruceTextFieldWidget extends AbstractSpruceTextInputWidget impleme
 		this.textPredicate = textPredicate;
 	}
 
+	/**
+	 * {@return the format of the number this text field accepts, or {@code null} if it accepts any text}
+	 *
+	 * @since 6.2.0
+	 */
+	public @Nullable NumberInputFormat getNumberFormat() {
+		return this.numberFormat;
+	}
+
+	/**
+	 * Sets the format of the number this text field accepts.
+	 * <p>
+	 * This replaces the text predicate with one accepting the numbers of the format, and their prefixes.
+	 *
+	 * @param numberFormat the number format, or {@code null} to accept any text
+	 * @see #isValidNumber()
+	 * @since 6.2.0
+	 */
+	public void setNumberFormat(@Nullable NumberInputFormat numberFormat) {
+		this.numberFormat = numberFormat;
+		this.validatedText = null;
+		this.textPredicate = numberFormat == null ? Objects::nonNull : numberFormat::accepts;
+		// The render text provider may depend on the validity of the number.
+		this.refreshRenderedText();
+	}
+
+	/**
+	 * Returns whether the text is a valid number of the {@linkplain #getNumberFormat() number format}.
+	 * <p>
+	 * The validity is cached until the text changes, so that rendering does not validate the text again.
+	 *
+	 * @return {@code true} if the text is a valid number or if there is no number format, or {@code false} otherwise
+	 * @since 6.2.0
+	 */
+	public boolean isValidNumber() {
+		if (this.numberFormat == null)
+			return true;
+
+		if (this.validatedText != this.text) {
+			this.validNumber = this.numberFormat.validate(this.text).isValid();
+			this.validatedText = this.text;
+		}
+		return this.validNumber;
+	}
+
 	public BiFunction<String, Integer, FormattedCharSequence> getRenderTextProvider() {
 		return this.renderTextProvider;
 	}
 
+	/**
+	 * Sets the provider of the rendered text, given the displayed part of the text and the index of its first character.
+	 * <p>
+	 * Its output is cached until the displayed text changes,
+	 * providers depending on any other state should call {@link #refreshRenderedText()} when it changes.
+	 *
+	 * @param renderTextProvider the render text provider
+	 */
 	public void setRenderTextProvider(BiFunction<String, Integer, FormattedCharSequence> renderTextProvider) {
 		this.renderTextProvider = renderTextProvider;
+		this.refreshRenderedText();
+	}
+
+	/**
+	 * Discards the cached output of the render text provider, so that it is called again on the next frame.
+	 *
+	 * @since 6.2.0
+	 */
+	public void refreshRenderedText() {
+		this.renderedText = null;
+		this.renderedDisplayedText = null;
 	}
 
 	@Override
@@ -174,10 +423,9 @@ public class SpruceTextFieldWidget extends AbstractSpruceTextInputWidget impleme
 		}
 
 		int width = this.getInnerWidth();
-		var string = this.client.font.plainSubstrByWidth(this.text.substring(this.firstCharacterIndex), width);
-		int l = string.length() + this.firstCharacterIndex;
+		int l = this.advances.headEndAtWidth(this.firstCharacterIndex, width);
 		if (this.cursor.column == this.firstCharacterIndex) {
-			this.firstCharacterIndex -= this.client.font.plainSubstrByWidth(this.text, width, true).length();
+			this.firstCharacterIndex -= textLength - this.advances.tailStartAtWidth(textLength, width);
 		}
 
 		if (this.cursor.column > l) {
@@ -190,14 +438,25 @@ public class SpruceTextFieldWidget extends AbstractSpruceTextInputWidget impleme
 	}
 
 	private void onChanged() {
-		if (this.changedListener != null) {
-			this.changedListener.accept(this.text);
+		long time = Util.getMillis();
+		if (this.suggestions != null)
+			this.suggestions.open = this.isFocused();
+
+		if (this.commitPolicy.isImmediate()) {
+			this.commitChange();
+		} else {
+			if (!this.pendingCommit) {
+				this.pendingCommit = true;
+				this.firstPendingEditTime = time;
+			}
+			this.lastPendingEditTime = time;
 		}
 
-		this.editingTime = Util.getMillis() + 5000L;
+		this.editingTime = time + 5000L;
 	}
 
 	private boolean onSelectionUpdate(Runnable action) {
+		this.history.breakCoalescing();
 		this.selection.tryStartSelection();
 		action.run();
 		this.selection.moveToCursor();
@@ -205,52 +464,89 @@ public class SpruceTextFieldWidget extends AbstractSpruceTextInputWidget impleme
 		return true;
 	}
 
-	private void insertCharacter(char character) {
-		if (this.getText().isEmpty()) {
-			this.setText(String.valueOf(character));
-			return;
-		} else {
-			this.selection.erase();
-		}
+	/**
+	 * Replaces a range of text if the resulting text is accepted by the text predicate, and records the edit in the history.
+	 *
+	 * @param start the start offset of the replaced range, inclusive
+	 * @param end the end offset of the replaced range, exclusive
+	 * @param replacement the replacement text
+	 * @return {@code true} if the text has been replaced, or {@code false} otherwise
+	 */
+	private boolean replaceText(int start, int end, String replacement) {
+		var newText = this.text.substring(0, start) + replacement + this.text.substring(end);
+		if (!this.textPredicate.test(newText))
+			return false;
 
-		if (character == '\n') {
-			return;
-		}
+		this.history.record(start, this.text.substring(start, end), replacement);
+		this.text = newText;
+		this.advances.update(newText, start, end - start, replacement.length());
+		this.onChanged();
+		return true;
+	}
 
-		var text = this.getText();
-		int cursorPosition = this.cursor.getPosition();
+	/**
+	 * Undoes the last edit.
+	 *
+	 * @return {@code true} if an edit has been undone, or {@code false} otherwise
+	 */
+	public boolean undo() {
+		var edits = this.history.undo();
+		if (edits == null)
+			return false;
 
-		String newText;
-		if (cursorPosition >= text.length()) {
-			newText = text + character;
-		} else {
-			newText = text.substring(0, cursorPosition) + character + text.substring(cursorPosition);
-		}
+		// A text field only records edits of a single range.
+		var edit = edits.get(0);
+		this.applyHistoryEdit(edit.offset(), edit.offset() + edit.inserted().length(), edit.removed());
+		return true;
+	}
 
-		if (this.textPredicate.test(newText)) {
-			this.text = newText;
-			this.onChanged();
-			this.cursor.moveRight();
-		}
+	/**
+	 * Redoes the last undone edit.
+	 *
+	 * @return {@code true} if an edit has been redone, or {@code false} otherwise
+	 */
+	public boolean redo() {
+		var edits = this.history.redo();
+		if (edits == null)
+			return false;
+
+		// A text field only records edits of a single range.
+		var edit = edits.get(0);
+		this.applyHistoryEdit(edit.offset(), edit.offset() + edit.removed().length(), edit.inserted());
+		return true;
+	}
+
+	private void applyHistoryEdit(int start, int end, String replacement) {
+		// The text predicate is not checked as the history only contains previously accepted texts.
+		this.text = this.text.substring(0, start) + replacement + this.text.substring(end);
+		this.advances.update(this.text, start, end - start, replacement.length());
+		this.selection.cancel();
+		this.cursor.lastColumn = this.cursor.column = start + replacement.length();
 		this.sanitize();
+		this.onChanged();
+	}
+
+	private void insertCharacter(char character) {
+		if (character == '\n') {
+			this.selection.erase();
+			this.sanitize();
+			return;
+		}
+
+		this.write(String.valueOf(character));
 	}
 
 	private void eraseCharacter() {
 		if (this.selection.erase()) {
 			this.sanitize();
-			this.onChanged();
 			return;
 		}
 
 		if (this.cursor.column == 0)
 			return;
 
-		var text = this.getText();
 		int cursorPosition = this.cursor.getPosition();
-		var newText = text.substring(0, cursorPosition - 1) + text.substring(cursorPosition);
-		if (this.textPredicate.test(newText)) {
-			this.text = newText;
-			this.onChanged();
+		if (this.replaceText(cursorPosition - 1, cursorPosition, "")) {
 			this.cursor.moveLeft();
 		}
 		this.sanitize();
@@ -259,7 +555,6 @@ public class SpruceTextFieldWidget extends AbstractSpruceTextInputWidget impleme
 	private void removeCharacterForward() {
 		if (this.selection.erase()) {
 			this.sanitize();
-			this.onChanged();
 			return;
 		}
 
@@ -271,14 +566,8 @@ public class SpruceTextFieldWidget extends AbstractSpruceTextInputWidget impleme
 		if (this.cursor.column >= this.getText().length())
 			return;
 
-		var text = this.getText();
 		int cursorPosition = this.cursor.getPosition();
-
-		var newText = text.substring(0, cursorPosition) + text.substring(cursorPosition + 1);
-		if (this.textPredicate.test(newText)) {
-			this.text = newText;
-			this.onChanged();
-		}
+		this.replaceText(cursorPosition, cursorPosition + 1, "");
 		this.sanitize();
 	}
 
@@ -291,36 +580,56 @@ public class SpruceTextFieldWidget extends AbstractSpruceTextInputWidget impleme
 		if (text.isEmpty())
 			return;
 
-		if (this.getText().isEmpty()) {
-			this.setText(text);
-			this.setCursorToEnd();
-			return;
+		// Replacing the selection directly records a single edit.
+		int start = this.cursor.getPosition();
+		int end = start;
+		if (this.selection.active) {
+			start = this.selection.getStart().getPosition();
+			end = this.selection.getEnd().getPosition();
+			this.selection.cancel();
 		}
-		this.selection.erase();
-
-		var oldText = this.getText();
-		int position = this.cursor.getPosition();
 
-		String newText;
-		if (position >= oldText.length()) {
-			newText = oldText + text;
-		} else {
-			newText = oldText.substring(0, position) + text + oldText.substring(position);
+		// Only the part which fits is copied, the whole resulting text is never built with an overlong insertion.
+		text = this.truncateInsertion(text, this.text.length() - (end - start));
+		if (text.isEmpty() && start == end) {
+			this.sanitize();
+			return;
 		}
 
-		if (this.textPredicate.test(newText)) {
-			this.text = newText;
-			this.onChanged();
-			this.cursor.move(text.length());
+		if (this.replaceText(start, end, text)) {
+			this.cursor.lastColumn = this.cursor.column = start + text.length();
+		} else if (start != end) {
+			// The replacement is rejected, the selection alone is still erased.
+			if (this.replaceText(start, end, ""))
+				this.cursor.lastColumn = this.cursor.column = start;
 		}
 		this.sanitize();
 	}
 
+	@Override
+	public void setFocused(boolean focused) {
+		super.setFocused(focused);
+		if (!focused) {
+			this.commitPendingChange();
+			if (this.suggestions != null)
+				this.suggestions.open = false;
+		}
+	}
+
 	/* Navigation */
 
 	@Override
 	public boolean onNavigation(NavigationDirection direction, boolean tab) {
 		if (this.requiresCursor()) return false;
+		if (this.isSuggesting()) {
+			if (tab) {
+				if (direction.isLookingForward())
+					return this.acceptSuggestion(this.suggestions.selected);
+			} else if (direction.isVertical()) {
+				this.suggestions.moveSelection(direction == NavigationDirection.UP ? -1 : 1);
+				return true;
+			}
+		}
 		if (!tab && direction.isHorizontal()) {
 			this.setFocused(true);
 			boolean result = switch (direction) {
@@ -357,6 +666,12 @@ public class SpruceTextFieldWidget extends AbstractSpruceTextInputWidget impleme
 			this.selection.selectAll();
 			this.sanitize();
 			return true;
+		} else if (isUndo(keyCode)) {
+			this.undo();
+			return true;
+		} else if (isRedo(keyCode)) {
+			this.redo();
+			return true;
 		} else if (Screen.isPaste(keyCode)) {
 			this.write(this.client.keyboardHandler.getClipboard());
 			return true;
@@ -376,6 +691,16 @@ public class SpruceTextFieldWidget extends AbstractSpruceTextInputWidget impleme
 			case GLFW.GLFW_KEY_LEFT -> this.onSelectionUpdate(this.cursor::moveLeft);
 			case GLFW.GLFW_KEY_END -> this.onSelectionUpdate(this.cursor::toEnd);
 			case GLFW.GLFW_KEY_HOME -> this.onSelectionUpdate(this.cursor::toStart);
+			case GLFW.GLFW_KEY_ENTER, GLFW.GLFW_KEY_KP_ENTER -> {
+				boolean accepted = this.isSuggesting() && this.acceptSuggestion(this.suggestions.selected);
+				yield this.commitPendingChange() || accepted;
+			}
+			case GLFW.GLFW_KEY_ESCAPE -> {
+				if (!this.isSuggesting())
+					yield false;
+				this.suggestions.open = false;
+				yield true;
+			}
 			case GLFW.GLFW_KEY_BACKSPACE -> {
 				this.eraseCharacter();
 				yield true;
@@ -386,7 +711,10 @@ public class SpruceTextFieldWidget extends AbstractSpruceTextInputWidget impleme
 			}
 			case GLFW.GLFW_KEY_D -> {
 				if (Screen.hasControlDown() && !this.text.isEmpty()) {
-					this.setText("");
+					this.selection.cancel();
+					this.replaceText(0, this.text.length(), "");
+					this.setCursorToEnd();
+					this.sanitize();
 				}
 				yield true;
 			}
@@ -394,19 +722,27 @@ public class SpruceTextFieldWidget extends AbstractSpruceTextInputWidget impleme
 		};
 	}
 
+	@Override
+	public boolean isMouseOver(double mouseX, double mouseY) {
+		if (super.isMouseOver(mouseX, mouseY))
+			return true;
+		return this.isSuggesting() && this.suggestions.getRowAt(mouseX, mouseY) != -1;
+	}
+
 	@Override
 	protected boolean onMouseClick(double mouseX, double mouseY, int button) {
+		if (this.isSuggesting()) {
+			int row = this.suggestions.getRowAt(mouseX, mouseY);
+			if (row != -1)
+				return button == 0 && this.acceptSuggestion(row);
+		}
+
 		if (button == 0) {
 			int x = MathHelper.floor(mouseX) - this.getX() - 4;
 
 			this.setFocused(true);
 
-			this.onSelectionUpdate(() -> {
-				var displayedText = this.client.font.plainSubstrByWidth(this.text.substring(this.firstCharacterIndex),
-						this.getInnerWidth());
-				this.cursor.lastColumn = this.cursor.column = this.firstCharacterIndex
-						+ this.client.font.plainSubstrByWidth(displayedText, x).length();
-			});
+			this.onSelectionUpdate(() -> this.cursor.lastColumn = this.cursor.column = this.getColumnAt(x));
 
 			return true;
 		}
@@ -414,14 +750,108 @@ public class SpruceTextFieldWidget extends AbstractSpruceTextInputWidget impleme
 		return false;
 	}
 
+	@Override
+	protected boolean onMouseDrag(double mouseX, double mouseY, int button, double deltaX, double deltaY) {
+		if (button != 0 || !this.isFocused())
+			return false;
+
+		int x = MathHelper.floor(mouseX) - this.getX() - 4;
+
+		if (!this.selection.active)
+			this.selection.startSelection();
+
+		int column;
+		if (x < 0) {
+			// Dragging past the edges scrolls by one character per event.
+			column = Math.max(0, this.firstCharacterIndex - 1);
+		} else if (x > this.getInnerWidth()) {
+			column = Math.min(this.text.length(), this.firstCharacterIndex + this.getDisplayedText().length() + 1);
+		} else {
+			column = this.getColumnAt(x);
+		}
+
+		this.history.breakCoalescing();
+		this.cursor.lastColumn = this.cursor.column = column;
+		this.selection.follower.copy(this.cursor);
+		this.sanitize();
+		return true;
+	}
+
+	@Override
+	protected boolean onMouseScroll(double mouseX, double mouseY, double scrollX, double scrollY) {
+		if (!this.isSuggesting() || this.suggestions.getRowAt(mouseX, mouseY) == -1)
+			return false;
+
+		this.suggestions.scroll(scrollY > 0 ? -1 : 1);
+		return true;
+	}
+
+	/**
+	 * {@return the column of the text at the given X offset of the displayed text}
+	 *
+	 * @param x the X offset relative to the start of the displayed text
+	 */
+	private int getColumnAt(int x) {
+		int displayedEnd = this.firstCharacterIndex + this.getDisplayedText().length();
+		return Math.min(this.advances.headEndAtWidth(this.firstCharacterIndex, x), displayedEnd);
+	}
+
+	/**
+	 * Returns the X offset of the given column relative to the start of the displayed text.
+	 *
+	 * @param column the column, which is considered at the start of the displayed text if it is before it
+	 * @return the X offset
+	 */
+	private int getColumnX(int column) {
+		return this.advances.getWidth(this.firstCharacterIndex, Math.max(this.firstCharacterIndex, column));
+	}
+
+	/**
+	 * Returns the displayed part of the text, which is cached until the text,
+	 * the first displayed character, the inner width or the glyph advances change.
+	 *
+	 * @return the displayed text
+	 */
+	private String getDisplayedText() {
+		return this.getDisplayed().text;
+	}
+
+	private DisplayedText getDisplayed() {
+		int width = this.getInnerWidth();
+		var displayed = this.displayedText;
+		if (displayed == null || displayed.source != this.text || displayed.firstCharacterIndex != this.firstCharacterIndex
+				|| displayed.width != width || displayed.glyphGeneration != GlyphAdvanceCache.getGeneration()) {
+			int end = this.advances.headEndAtWidth(this.firstCharacterIndex, width);
+			displayed = this.displayedText = new DisplayedText(this.text, this.firstCharacterIndex, width, GlyphAdvanceCache.getGeneration(),
+					this.text.substring(this.firstCharacterIndex, end));
+		}
+		return displayed;
+	}
+
+	/**
+	 * Returns the output of the render text provider for the displayed text, which is cached along with it.
+	 *
+	 * @return the rendered text
+	 */
+	private FormattedCharSequence getRenderedText() {
+		var displayed = this.getDisplayed();
+		if (this.renderedText == null || this.renderedDisplayedText != displayed) {
+			this.renderedText = this.renderTextProvider.apply(displayed.text, displayed.firstCharacterIndex);
+			this.renderedDisplayedText = displayed;
+		}
+		return this.renderedText;
+	}
+
 	/* Rendering */
 
 	@Override
 	protected void renderWidget(GuiGraphics graphics, int mouseX, int mouseY, float delta) {
 		super.renderWidget(graphics, mouseX, mouseY, delta);
+		this.commitDueChange();
 
 		this.drawText(graphics);
 		this.drawCursor(graphics);
+		this.drawSuggestions(graphics);
 
 		if (!this.dragging && this.editingTime == 0) {
 			Tooltip.queueFor(this, mouseX, mouseY, this.tooltipTicks,
@@ -447,16 +877,8 @@ public class SpruceTextFieldWidget extends AbstractSpruceTextInputWidget impleme
 			return;
 		}
 
-		var displayedText = this.client.font.plainSubstrByWidth(
-				this.text.substring(this.firstCharacterIndex),
-				this.getInnerWidth()
-		);
-
-		graphics.drawShadowedText(
-				this.client.font, this.renderTextProvider.apply(displayedText, this.firstCharacterIndex),
-				x, y, textColor
-		);
-		this.drawSelection(graphics, displayedText, y);
+		graphics.drawShadowedText(this.client.font, this.getRenderedText(), x, y, textColor);
+		this.drawSelection(graphics, this.getDisplayedText(), y);
 	}
 
 	/**
@@ -476,10 +898,15 @@ public class SpruceTextFieldWidget extends AbstractSpruceTextInputWidget impleme
 		if (startIndex >= line.length())
 			return;
 
-		int x = this.getX() + 4 + this.client.font.width(line.substring(0, startIndex));
-		var selected = line.substring(startIndex, endIndex);
-
-		int x2 = x + this.client.font.width(selected);
+		int x;
+		int x2;
+		if (this.getDisplayedText().equals(line)) {
+			x = this.getX() + 4 + this.getColumnX(this.firstCharacterIndex + startIndex);
+			x2 = this.getX() + 4 + this.getColumnX(this.firstCharacterIndex + endIndex);
+		} else {
+			x = this.getX() + 4 + GlyphAdvanceCache.width(line, 0, startIndex);
+			x2 = x + GlyphAdvanceCache.width(line, startIndex, endIndex);
+		}
 		int y2 = lineY + this.client.font.lineHeight;
 
 		graphics.fill(RenderType.guiTextHighlight(), x, lineY, x2, y2, 0xff0000ff);
@@ -504,17 +931,47 @@ public class SpruceTextFieldWidget extends AbstractSpruceTextInputWidget impleme
 
 		this.cursor.sanitize();
 
-		var cursorLine = this.text.substring(this.firstCharacterIndex);
-		int cursorX = this.getX() + 4 + this.client.font.width(
-				cursorLine.substring(0, this.cursor.column - this.firstCharacterIndex)
-		);
+		int cursorX = this.getX() + 4 + this.getColumnX(this.cursor.column);
 
-		if (this.cursor.column - this.firstCharacterIndex < cursorLine.length())
+		if (this.cursor.column < this.text.length())
 			graphics.fill(cursorX - 1, cursorY - 1, cursorX, cursorY + 9, ColorUtil.TEXT_COLOR);
 		else
 			graphics.drawShadowedText(this.client.font, "_", cursorX, cursorY, ColorUtil.TEXT_COLOR);
 	}
 
+	/**
+	 * Draws the suggestion popup below the text field, only the visible suggestions are drawn.
+	 *
+	 * @param graphics the GUI graphics instance to render with
+	 * @since 6.2.0
+	 */
+	protected void drawSuggestions(GuiGraphics graphics) {
+		var suggestions = this.suggestions;
+		if (suggestions == null)
+			return;
+
+		suggestions.update();
+		if (!suggestions.isShown())
+			return;
+
+		int rows = suggestions.getVisibleRows();
+		int x = this.getX();
+		int y = this.getY() + this.getHeight();
+		graphics.fill(x, y, x + this.getWidth(), y + rows * SUGGESTION_ROW_HEIGHT + 2, SUGGESTION_BACKGROUND_COLOR);
+
+		int maxWidth = this.getWidth() - 8;
+		for (int row = 0; row < rows; row++) {
+			int index = suggestions.scroll + row;
+			int rowY = y + 1 + row * SUGGESTION_ROW_HEIGHT;
+			if (index == suggestions.selected)
+				graphics.fill(x + 1, rowY, x + this.getWidth() - 1, rowY + SUGGESTION_ROW_HEIGHT, SELECTED_SUGGESTION_COLOR);
+
+			var suggestion = suggestions.get(index);
+			int end = GlyphAdvanceCache.headEndAtWidth(suggestion, 0, suggestion.length(), maxWidth);
+			graphics.drawShadowedText(this.client.font, suggestion.substring(0, end), x + 4, rowY + 2, ColorUtil.TEXT_COLOR);
+		}
+	}
+
 	/* Narration */
 
 	@Override
@@ -523,6 +980,136 @@ public class SpruceTextFieldWidget extends AbstractSpruceTextInputWidget impleme
 		this.getTooltip().ifPresent(text -> builder.add(NarratedElementType.HINT, text));
 	}
 
+	/**
+	 * Represents the suggestion popup, whose suggestions are updated from the text when rendered or navigated.
+	 */
+	private final class SuggestionPopup {
+		private final SuggestionIndex index;
+		private final SuggestionIndex.Narrowing narrowing;
+		private boolean fuzzy;
+		private boolean open;
+		/**
+		 * The text the suggestions got updated for.
+		 */
+		private @Nullable String query;
+		/**
+		 * The fuzzy matches of the last completed search, {@code null} if the search failed.
+		 */
+		private SuggestionIndex.FuzzyMatches fuzzyMatches;
+		private @Nullable String fuzzyQuery;
+		private @Nullable CompletableFuture<SuggestionIndex.FuzzyMatches> fuzzySearch;
+		private @Nullable String fuzzySearchQuery;
+		private int selected;
+		private int scroll;
+
+		private SuggestionPopup(SuggestionIndex index) {
+			this.index = index;
+			this.narrowing = index.narrow();
+		}
+
+		/**
+		 * Updates the suggestions if the text changed, and collects the result of the running fuzzy search.
+		 */
+		private void update() {
+			var text = SpruceTextFieldWidget.this.text;
+			if (this.query != text) {
+				this.narrowing.update(text);
+				this.query = text;
+				this.selected = 0;
+				this.scroll = 0;
+			}
+
+			if (!this.fuzzy || !this.open)
+				return;
+
+			if (this.fuzzySearch != null) {
+				if (!this.fuzzySearch.isDone())
+					return;
+
+				boolean wasShown = this.hasFuzzyMatches();
+				this.fuzzyMatches = this.fuzzySearch.getNow(null);
+				this.fuzzyQuery = this.fuzzySearchQuery;
+				this.fuzzySearch = null;
+				if (!wasShown && this.hasFuzzyMatches()) {
+					// The prefix matches shown until now are replaced.
+					this.selected = 0;
+					this.scroll = 0;
+				}
+			}
+
+			if (this.fuzzyQuery != text) {
+				// The previous matches are narrowed if the text extends their query.
+				var previous = this.fuzzyMatches;
+				this.fuzzySearchQuery = text;
+				this.fuzzySearch = CompletableFuture.supplyAsync(() -> this.index.fuzzyMatch(text, previous), Util.backgroundExecutor())
+						.exceptionally(e -> {
+							LOGGER.error("Failed to search the suggestions of a text field.", e);
+							return null;
+						});
+			}
+		}
+
+		private boolean isShown() {
+			this.update();
+			return this.open && !SpruceTextFieldWidget.this.text.isEmpty() && this.size() > 0;
+		}
+
+		/**
+		 * {@return {@code true} if the fuzzy matches of the current text are available, or {@code false} otherwise}
+		 */
+		private boolean hasFuzzyMatches() {
+			return this.fuzzy && this.fuzzyMatches != null && this.fuzzyQuery == SpruceTextFieldWidget.this.text;
+		}
+
+		private int size() {
+			return this.hasFuzzyMatches() ? this.fuzzyMatches.size() : this.narrowing.size();
+		}
+
+		private String get(int index) {
+			return this.hasFuzzyMatches() ? this.fuzzyMatches.get(index) : this.narrowing.get(index);
+		}
+
+		private int getVisibleRows() {
+			return Math.min(MAX_SUGGESTION_ROWS, this.size());
+		}
+
+		private void moveSelection(int amount) {
+			this.update();
+			int size = this.size();
+			if (size == 0)
+				return;
+
+			this.selected = Math.floorMod(this.selected + amount, size);
+			if (this.selected < this.scroll)
+				this.scroll = this.selected;
+			else if (this.selected >= this.scroll + MAX_SUGGESTION_ROWS)
+				this.scroll = this.selected - MAX_SUGGESTION_ROWS + 1;
+		}
+
+		private void scroll(int amount) {
+			this.scroll = MathHelper.clamp(this.scroll + amount, 0, Math.max(0, this.size() - MAX_SUGGESTION_ROWS));
+		}
+
+		/**
+		 * {@return the index of the suggestion at the given position, or {@code -1} if there is none}
+		 */
+		private int getRowAt(double mouseX, double mouseY) {
+			int x = SpruceTextFieldWidget.this.getX();
+			int y = SpruceTextFieldWidget.this.getY() + SpruceTextFieldWidget.this.getHeight() + 1;
+			if (mouseX < x || mouseX >= x + SpruceTextFieldWidget.this.getWidth() || mouseY < y)
+				return -1;
+
+			int row = MathHelper.floor((mouseY - y) / SUGGESTION_ROW_HEIGHT);
+			return row < this.getVisibleRows() ? this.scroll + row : -1;
+		}
+	}
+
+	/**
+	 * Represents the cached displayed part of the text.
+	 */
+	private record DisplayedText(String source, int firstCharacterIndex, int width, int glyphGeneration, String text) {
+	}
+
 	/**
 	 * Represents a cursor.
 	 *
@@ -688,18 +1275,7 @@ public class SpruceTextFieldWidget extends AbstractSpruceTextInputWidget impleme
 				return false;
 			}
 
-			if (start.column == 0 && end.column >= text.length()) {
-				text = "";
-				this.cancel();
-				return true;
-			}
-
-			var text = getText();
-			var newText = text.substring(0, start.getPosition()) + text.substring(end.getPosition());
-			if (SpruceTextFieldWidget.this.textPredicate.test(newText)) {
-				SpruceTextFieldWidget.this.text = newText;
-				SpruceTextFieldWidget.this.onChanged();
-			}
+			replaceText(start.getPosition(), end.getPosition(), "");
 
 			cursor.copy(start);
 
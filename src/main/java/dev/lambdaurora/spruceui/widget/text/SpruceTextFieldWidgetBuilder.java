@@ -10,6 +10,8 @@
 package dev.lambdaurora.spruceui.widget.text;
 
 import dev.lambdaurora.spruceui.Position;
+import dev.lambdaurora.spruceui.text.NumberInputFormat;
+import dev.lambdaurora.spruceui.text.SuggestionIndex;
 import net.minecraft.network.chat.Text;
 import net.minecraft.util.FormattedCharSequence;
 
@@ -22,7 +24,7 @@ import java.util.function.Predicate;
  * Represents a text field widget builder.
  *
  * @author LambdAurora
- * @version 6.1.0
+ * @version 6.2.0
  * @since 6.1.0
  */
 public class SpruceTextFieldWidgetBuilder {
@@ -32,8 +34,12 @@ public class SpruceTextFieldWidgetBuilder {
 	private Text title;
 	private Text placeholder;
 	private Consumer<String> onChange;
+	private TextCommitPolicy commitPolicy;
 	private Predicate<String> textPredicate;
+	private NumberInputFormat numberFormat;
 	private BiFunction<String, Integer, FormattedCharSequence> renderTextProvider;
+	private SuggestionIndex suggestions;
+	private boolean fuzzySuggestions;
 
 	public SpruceTextFieldWidgetBuilder(Position position, int width, int height) {
 		this.position = position;
@@ -61,22 +67,80 @@ public class SpruceTextFieldWidgetBuilder {
 		return this;
 	}
 
+	/**
+	 * Sets the policy deciding when edits are committed to the change listener.
+	 *
+	 * @param commitPolicy the commit policy
+	 * @return this builder
+	 * @see SpruceTextFieldWidget#setCommitPolicy(TextCommitPolicy)
+	 * @since 6.2.0
+	 */
+	public SpruceTextFieldWidgetBuilder commitPolicy(TextCommitPolicy commitPolicy) {
+		this.commitPolicy = commitPolicy;
+		return this;
+	}
+
 	public SpruceTextFieldWidgetBuilder textPredicate(Predicate<String> textPredicate) {
 		this.textPredicate = textPredicate;
 		return this;
 	}
 
+	/**
+	 * Sets the format of the number the text field accepts, which replaces the text predicate.
+	 *
+	 * @param numberFormat the number format
+	 * @return this builder
+	 * @see SpruceTextFieldWidget#setNumberFormat(NumberInputFormat)
+	 * @since 6.2.0
+	 */
+	public SpruceTextFieldWidgetBuilder numberFormat(NumberInputFormat numberFormat) {
+		this.numberFormat = numberFormat;
+		return this;
+	}
+
 	public SpruceTextFieldWidgetBuilder renderTextProvider(BiFunction<String, Integer, FormattedCharSequence> renderTextProvider) {
 		this.renderTextProvider = renderTextProvider;
 		return this;
 	}
 
+	/**
+	 * Sets the suggestions shown below the text field as the text is edited.
+	 *
+	 * @param suggestions the index of the suggestions
+	 * @return this builder
+	 * @see SpruceTextFieldWidget#setSuggestions(SuggestionIndex)
+	 * @since 6.2.0
+	 */
+	public SpruceTextFieldWidgetBuilder suggestions(SuggestionIndex suggestions) {
+		this.suggestions = suggestions;
+		return this;
+	}
+
+	/**
+	 * Sets whether the suggestions are matched fuzzily in the background, instead of by prefix.
+	 *
+	 * @param fuzzySuggestions {@code true} to match the suggestions fuzzily, or {@code false} otherwise
+	 * @return this builder
+	 * @see SpruceTextFieldWidget#setFuzzySuggestions(boolean)
+	 * @since 6.2.0
+	 */
+	public SpruceTextFieldWidgetBuilder fuzzySuggestions(boolean fuzzySuggestions) {
+		this.fuzzySuggestions = fuzzySuggestions;
+		return this;
+	}
+
 	public SpruceTextFieldWidget build() {
 		Objects.requireNonNull(this.title, "Text fields require a title.");
 		var widget = new SpruceTextFieldWidget(this.position, this.width, this.height, this.title, this.placeholder);
 		if (this.onChange != null) widget.setChangedListener(this.onChange);
+		if (this.commitPolicy != null) widget.setCommitPolicy(this.commitPolicy);
+		if (this.numberFormat != null) widget.setNumberFormat(this.numberFormat);
 		if (this.textPredicate != null) widget.setTextPredicate(this.textPredicate);
 		if (this.renderTextProvider != null) widget.setRenderTextProvider(this.renderTextProvider);
+		if (this.suggestions != null) {
+			widget.setSuggestions(this.suggestions);
+			widget.setFuzzySuggestions(this.fuzzySuggestions);
+		}
 		return widget;
 	}
 
@@ -0,0 +1,95 @@
+/*
+ * Copyright © 2024 LambdAurora <email@lambdaurora.dev>
+ *
+ * This file is part of SpruceUI.
+ *
+ * Licensed under the MIT license. For more information,
+ * see the LICENSE file.
+ */
+
+package dev.lambdaurora.spruceui.widget.text;
+
+/**
+ * Represents when the edits of a text field are committed to its changed listener.
+ * <p>
+ * Deferred edits are coalesced, the changed listener is called once with the latest text,
+ * and is not called if the text is back to the last committed text.
+ * Deferred edits are always committed when the text field loses focus, when Enter is pressed,
+ * or when the text field is removed from its screen.
+ * Setting the text programmatically is always committed immediately.
+ *
+ * @author LambdAurora
+ * @version 6.2.0
+ * @see SpruceTextFieldWidget#setCommitPolicy(TextCommitPolicy)
+ * @since 6.2.0
+ */
+public final class TextCommitPolicy {
+	/**
+	 * Commits every edit as soon as it is made.
+	 */
+	public static final TextCommitPolicy IMMEDIATE = new TextCommitPolicy(Type.IMMEDIATE, 0);
+	/**
+	 * Commits the edits when the text field loses focus or when Enter is pressed.
+	 */
+	public static final TextCommitPolicy ON_CONFIRM = new TextCommitPolicy(Type.ON_CONFIRM, 0);
+	/**
+	 * Commits the edits at most once per client tick, when the text field is ticked or rendered.
+	 */
+	public static final TextCommitPolicy PER_TICK = new TextCommitPolicy(Type.PER_TICK, 50);
+
+	private final Type type;
+	private final long delay;
+
+	private TextCommitPolicy(Type type, long delay) {
+		this.type = type;
+		this.delay = delay;
+	}
+
+	/**
+	 * Creates a policy which commits the edits once no edit has been made for the given delay.
+	 *
+	 * @param delay the delay in milliseconds
+	 * @return the policy
+	 */
+	public static TextCommitPolicy debounced(long delay) {
+		if (delay < 0)
+			throw new IllegalArgumentException("The debounce delay cannot be negative.");
+		return new TextCommitPolicy(Type.DEBOUNCED, delay);
+	}
+
+	/**
+	 * {@return {@code true} if edits are committed as soon as they are made, or {@code false} if they are deferred}
+	 */
+	public boolean isImmediate() {
+		return this.type == Type.IMMEDIATE || (this.type == Type.DEBOUNCED && this.delay == 0);
+	}
+
+	/**
+	 * Returns the time at which pending edits are due to be committed.
+	 *
+	 * @param firstEditTime the time of the first pending edit in milliseconds
+	 * @param lastEditTime the time of the last pending edit in milliseconds
+	 * @return the time at which the edits are due, or {@link Long#MAX_VALUE} if they wait for a confirmation
+	 */
+	long getCommitTime(long firstEditTime, long lastEditTime) {
+		return switch (this.type) {
+			case IMMEDIATE -> firstEditTime;
+			case DEBOUNCED -> lastEditTime + this.delay;
+			// Ticks are aligned to the clock, so every edit made within the same tick is committed together.
+			case PER_TICK -> (firstEditTime / this.delay + 1) * this.delay;
+			case ON_CONFIRM -> Long.MAX_VALUE;
+		};
+	}
+
+	@Override
+	public String toString() {
+		return this.type == Type.DEBOUNCED ? "TextCommitPolicy{debounced=" + this.delay + "ms}" : "TextCommitPolicy{" + this.type + "}";
+	}
+
+	private enum Type {
+		IMMEDIATE,
+		DEBOUNCED,
+		ON_CONFIRM,
+		PER_TICK
+	}
+}